@@ -0,0 +1,39 @@
+package com.root14.barcodeservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * A point-in-time snapshot of the statistics of one in-process cache.
+ *
+ * @param name          the name of the cache
+ * @param hitCount      the number of lookups that were answered from the cache
+ * @param missCount     the number of lookups that were not found in the cache
+ * @param hitRate       the ratio of hits to lookups, {@code 1.0} when there were no lookups
+ * @param evictionCount the number of entries evicted to stay within the budget
+ * @param entryCount    the approximate number of entries currently cached
+ * @param weightedSize  the current weight of all entries (bytes for byte-weighted caches)
+ * @param maximumWeight the configured budget in the same unit as {@code weightedSize}
+ */
+public record CacheStatistics(String name, long hitCount, long missCount, double hitRate, long evictionCount,
+                              long entryCount, long weightedSize, long maximumWeight) {
+
+    /**
+     * Creates a snapshot from a Caffeine cache that was built with {@code recordStats()}.
+     *
+     * @param name          the name to report the cache under
+     * @param cache         the cache to read the statistics from
+     * @param maximumWeight the budget the cache was configured with
+     * @return the statistics snapshot
+     */
+    public static CacheStatistics of(String name, Cache<?, ?> cache, long maximumWeight) {
+        // eviction runs asynchronously; settle pending work so the snapshot is consistent
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        long weightedSize = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(cache.estimatedSize()))
+                .orElse(cache.estimatedSize());
+        return new CacheStatistics(name, stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), cache.estimatedSize(), weightedSize, maximumWeight);
+    }
+}
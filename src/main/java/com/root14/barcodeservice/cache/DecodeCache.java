@@ -0,0 +1,162 @@
+package com.root14.barcodeservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.root14.barcodeservice.core.DecodeProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A size-bounded cache of decode outcomes keyed by the content of the uploaded image, see {@link DecodeKey}.
+ *
+ * <p>Kiosks and conveyor cameras send the same frame many times; repeats are answered from here without decoding
+ * the image again. Both decoded barcodes and "no barcode found" outcomes are cached, each with its own time to live
+ * ({@code barcode.cache.decode.ttl-ms} and {@code barcode.cache.decode.not-found-ttl-ms}), so a frame without a
+ * barcode is not decoded over and over while the camera still shows it. Concurrent requests for the same frame
+ * wait for a single decode, which runs on the thread of the first request, outside the locks of the cache, so a
+ * slow decode does not hold up requests for other frames. Invalid images, I/O errors, interruptions and decodes that
+ * ran out of their time budget ({@link com.root14.barcodeservice.exception.DecodeTimeoutException}) are not
+ * cached. Entries are weighed by their approximate
+ * size in bytes and the total is kept under {@code barcode.cache.decode.max-bytes}; a budget of {@code 0} disables
+ * caching.</p>
+ *
+ * <p>Cached results are shared between callers and must not be modified.</p>
+ */
+@Component
+public class DecodeCache implements MonitoredCache {
+    // Rough per-entry overhead (key, outcome, result object, map node) on top of the decoded content.
+    private static final int ENTRY_OVERHEAD = 160;
+    private static final Outcome NOT_FOUND = new Outcome(null);
+
+    private final long maxBytes;
+    private final AsyncCache<DecodeKey, Outcome> cache;
+
+    /**
+     * Creates the cache with the given memory budget and times to live.
+     *
+     * @param maxBytes          the maximum total weight of cached entries in bytes; {@code 0} disables the cache
+     * @param ttlMillis         how long a decoded barcode is kept, in milliseconds
+     * @param notFoundTtlMillis how long a "no barcode found" outcome is kept, in milliseconds
+     */
+    public DecodeCache(@Value("${barcode.cache.decode.max-bytes:4194304}") long maxBytes,
+                       @Value("${barcode.cache.decode.ttl-ms:600000}") long ttlMillis,
+                       @Value("${barcode.cache.decode.not-found-ttl-ms:5000}") long notFoundTtlMillis) {
+        this.maxBytes = maxBytes;
+        long ttl = Duration.ofMillis(ttlMillis).toNanos();
+        long notFoundTtl = Duration.ofMillis(notFoundTtlMillis).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(DecodeCache::weigh)
+                .expireAfter(new Expiry<DecodeKey, Outcome>() {
+                    @Override
+                    public long expireAfterCreate(DecodeKey key, Outcome outcome, long currentTime) {
+                        return outcome.result() != null ? ttl : notFoundTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(DecodeKey key, Outcome outcome, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, outcome, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(DecodeKey key, Outcome outcome, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the decode outcome of the given image, decoding it only if no outcome is cached.
+     *
+     * @param image   the uploaded image bytes
+     * @param profile the decode profile the image is decoded with
+     * @param decoder decodes the image on a cache miss
+     * @return the decoded barcode
+     * @throws IOException       if the decoder fails to read the image, or the thread is interrupted while waiting
+     *                           for the decode of another request
+     * @throws NotFoundException if no barcode is found in the image, now or when it was last decoded
+     */
+    public Result decode(byte[] image, DecodeProfile profile, Decoder decoder) throws IOException, NotFoundException {
+        if (maxBytes == 0) {
+            return decoder.decode();
+        }
+        CompletableFuture<Outcome> loading = new CompletableFuture<>();
+        CompletableFuture<Outcome> future = cache.get(DecodeKey.of(image, profile), (key, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(new Outcome(decoder.decode()));
+            } catch (NotFoundException e) {
+                loading.complete(NOT_FOUND);
+            } catch (Throwable e) {
+                // the cache drops futures that complete exceptionally, so the next request decodes again
+                loading.completeExceptionally(e);
+            }
+        }
+        Outcome outcome;
+        try {
+            outcome = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the decode of the same image.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        if (outcome.result() == null) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+        return outcome.result();
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        return CacheStatistics.of("decode", cache.synchronous(), maxBytes);
+    }
+
+    private static int weigh(DecodeKey key, Outcome outcome) {
+        Result result = outcome.result();
+        long weight = ENTRY_OVERHEAD;
+        if (result != null) {
+            weight += 2L * result.getText().length();
+            weight += result.getRawBytes() != null ? result.getRawBytes().length : 0;
+            weight += result.getResultPoints() != null ? 24L * result.getResultPoints().length : 0;
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Decodes the image on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Decoder {
+        /**
+         * @return the decoded barcode
+         * @throws IOException       if reading the image fails
+         * @throws NotFoundException if no barcode is found in the image
+         */
+        Result decode() throws IOException, NotFoundException;
+    }
+
+    /** A cached outcome; {@code result} is {@code null} if no barcode was found. */
+    private record Outcome(Result result) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.root14.barcodeservice.cache;
+
+import com.root14.barcodeservice.core.DecodeProfile;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Identifies an uploaded image by its content and the profile it is decoded with.
+ * <p>
+ * The bytes are hashed with the 128-bit MurmurHash3 (x64 variant), which is fast enough to run on every upload and
+ * wide enough that byte-identical frames are the only realistic matches. The image itself is not kept.
+ *
+ * @param hashHigh the upper 64 bits of the hash
+ * @param hashLow  the lower 64 bits of the hash
+ * @param length   the number of bytes hashed
+ * @param profile  the decode profile
+ */
+public record DecodeKey(long hashHigh, long hashLow, int length, DecodeProfile profile) {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Creates the key of the given image.
+     *
+     * @param image   the uploaded image bytes
+     * @param profile the decode profile
+     * @return the key
+     */
+    public static DecodeKey of(byte[] image, DecodeProfile profile) {
+        long h1 = 0;
+        long h2 = 0;
+        int blocks = image.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = (long) LONGS.get(image, i * 16);
+            long k2 = (long) LONGS.get(image, i * 16 + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = image.length - 1; i >= tail + 8; i--) {
+            k2 = (k2 << 8) | (image[i] & 0xFF);
+        }
+        for (int i = Math.min(image.length, tail + 8) - 1; i >= tail; i--) {
+            k1 = (k1 << 8) | (image[i] & 0xFF);
+        }
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        h1 ^= image.length;
+        h2 ^= image.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new DecodeKey(h1, h2, image.length, profile);
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
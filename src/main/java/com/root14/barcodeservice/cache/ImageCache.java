@@ -0,0 +1,87 @@
+package com.root14.barcodeservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.root14.barcodeservice.core.RenderSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Predicate;
+
+/**
+ * A size-bounded cache of final, encoded barcode images keyed by their {@link RenderSpec}.
+ *
+ * <p>Entries are weighed by their size in bytes and the total is kept under the configured
+ * budget ({@code barcode.cache.image.max-bytes}). Eviction is frequency-aware (Caffeine's
+ * W-TinyLFU), so labels that are reprinted often stay cached while one-off requests do not
+ * push them out. A budget of {@code 0} disables caching.</p>
+ *
+ * <p>Cached arrays are shared between callers and must not be modified.</p>
+ */
+@Component
+public class ImageCache implements MonitoredCache {
+    // Rough per-entry overhead (key object, strings, map node) on top of the image bytes.
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final long maxBytes;
+    private final Cache<RenderSpec, byte[]> cache;
+
+    /**
+     * Creates the cache with the given memory budget.
+     *
+     * @param maxBytes the maximum total weight of cached entries in bytes; {@code 0} disables the cache
+     */
+    public ImageCache(@Value("${barcode.cache.image.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(ImageCache::weigh)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached image for the given spec.
+     *
+     * @param spec the render spec to look up
+     * @return the encoded image, or {@code null} if it is not cached
+     */
+    public byte[] get(RenderSpec spec) {
+        if (maxBytes == 0) {
+            return null;
+        }
+        return cache.getIfPresent(spec);
+    }
+
+    /**
+     * Caches the encoded image for the given spec.
+     *
+     * @param spec  the render spec the image was generated from
+     * @param image the encoded image; must not be modified afterwards
+     */
+    public void put(RenderSpec spec, byte[] image) {
+        if (maxBytes == 0) {
+            return;
+        }
+        cache.put(spec, image);
+    }
+
+    /**
+     * Removes the cached images whose spec matches the given filter, e.g. those of a replaced symbology.
+     *
+     * @param filter selects the specs to remove
+     */
+    public void invalidateIf(Predicate<RenderSpec> filter) {
+        cache.asMap().keySet().removeIf(filter);
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        return CacheStatistics.of("image", cache, maxBytes);
+    }
+
+    private static int weigh(RenderSpec spec, byte[] image) {
+        long weight = (long) image.length + 2L * spec.data().length() + ENTRY_OVERHEAD;
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,90 @@
+package com.root14.barcodeservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.common.BitMatrix;
+import com.root14.barcodeservice.core.MatrixKey;
+import com.root14.barcodeservice.core.ModuleScaler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Predicate;
+
+/**
+ * A size-bounded cache of encoded barcodes at native module resolution, keyed by their {@link MatrixKey}.
+ *
+ * <p>Unlike the {@link ImageCache}, entries do not depend on the requested size or output format:
+ * one compact matrix serves every variant of the same data, which is then derived by
+ * {@link ModuleScaler}. Entries are weighed by their approximate size in bytes and the total is kept
+ * under the configured budget ({@code barcode.cache.matrix.max-bytes}). A budget of {@code 0}
+ * disables caching.</p>
+ *
+ * <p>Cached matrices are shared between callers and must not be modified.</p>
+ */
+@Component
+public class MatrixCache implements MonitoredCache {
+    // Rough per-entry overhead (key object, strings, hint map, map node) on top of the matrix bits.
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    private final Cache<MatrixKey, BitMatrix> cache;
+
+    /**
+     * Creates the cache with the given memory budget.
+     *
+     * @param maxBytes the maximum total weight of cached entries in bytes; {@code 0} disables the cache
+     */
+    public MatrixCache(@Value("${barcode.cache.matrix.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(MatrixCache::weigh)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached matrix for the given key.
+     *
+     * @param key the matrix key to look up
+     * @return the native module matrix, or {@code null} if it is not cached
+     */
+    public BitMatrix get(MatrixKey key) {
+        if (maxBytes == 0) {
+            return null;
+        }
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Caches the native module matrix for the given key.
+     *
+     * @param key    the matrix key the matrix was encoded from
+     * @param matrix the matrix at native module resolution; must not be modified afterwards
+     */
+    public void put(MatrixKey key, BitMatrix matrix) {
+        if (maxBytes == 0) {
+            return;
+        }
+        cache.put(key, matrix);
+    }
+
+    /**
+     * Removes the cached matrices whose key matches the given filter, e.g. those of a replaced symbology.
+     *
+     * @param filter selects the keys to remove
+     */
+    public void invalidateIf(Predicate<MatrixKey> filter) {
+        cache.asMap().keySet().removeIf(filter);
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        return CacheStatistics.of("matrix", cache, maxBytes);
+    }
+
+    private static int weigh(MatrixKey key, BitMatrix matrix) {
+        long weight = 4L * matrix.getRowSize() * matrix.getHeight() + 2L * key.data().length() + ENTRY_OVERHEAD;
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
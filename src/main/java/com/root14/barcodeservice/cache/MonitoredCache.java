@@ -0,0 +1,14 @@
+package com.root14.barcodeservice.cache;
+
+/**
+ * An in-process cache whose statistics are published through the {@code /cache/stats} endpoint.
+ * Every Spring bean implementing this interface is picked up automatically.
+ */
+public interface MonitoredCache {
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the current {@link CacheStatistics}
+     */
+    CacheStatistics statistics();
+}
@@ -0,0 +1,85 @@
+package com.root14.barcodeservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.root14.barcodeservice.dto.ImageObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * A size-bounded read-through cache of stored barcodes keyed by their UUID.
+ *
+ * <p>A stored barcode's spec never changes, so entries only have to be invalidated when the symbology or output
+ * format it is rendered with is replaced, see {@link #invalidateAll}. Frequently fetched UUIDs are
+ * answered from memory without a database round trip. Entries are weighed by the size of their image and the
+ * total is kept under the configured budget ({@code barcode.cache.stored.max-bytes}). A budget of {@code 0}
+ * disables caching.</p>
+ *
+ * <p>Cached images are shared between callers and must not be modified.</p>
+ */
+@Component
+public class StoredBarcodeCache implements MonitoredCache {
+    // Rough per-entry overhead (UUID, string, record, map node) on top of the image bytes.
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private final Cache<UUID, ImageObject> cache;
+
+    /**
+     * Creates the cache with the given memory budget.
+     *
+     * @param maxBytes the maximum total weight of cached entries in bytes; {@code 0} disables the cache
+     */
+    public StoredBarcodeCache(@Value("${barcode.cache.stored.max-bytes:8388608}") long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(StoredBarcodeCache::weigh)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached barcode with the given UUID.
+     *
+     * @param id the UUID of the stored barcode
+     * @return the barcode, or {@code null} if it is not cached
+     */
+    public ImageObject get(UUID id) {
+        if (maxBytes == 0) {
+            return null;
+        }
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Caches a stored barcode.
+     *
+     * @param id    the UUID of the stored barcode
+     * @param image the barcode; its image must not be modified afterwards
+     */
+    public void put(UUID id, ImageObject image) {
+        if (maxBytes == 0) {
+            return;
+        }
+        cache.put(id, image);
+    }
+
+    /**
+     * Removes every cached barcode, so they are rendered again on their next fetch.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public CacheStatistics statistics() {
+        return CacheStatistics.of("stored", cache, maxBytes);
+    }
+
+    private static int weigh(UUID id, ImageObject image) {
+        return image.barcode().length + ENTRY_OVERHEAD;
+    }
+}
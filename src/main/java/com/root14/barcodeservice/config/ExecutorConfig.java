@@ -0,0 +1,51 @@
+package com.root14.barcodeservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * This class provides the thread pools used for CPU-bound barcode work outside the request threads.
+ * The pools are dedicated to this service, so long-running batches never compete with
+ * {@link ForkJoinPool#commonPool()} users such as parallel streams.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Provides the work-stealing pool running the items of batch requests: rendering for batch generation and
+     * decoding the entries of batch reads.
+     * Its size is set with {@code barcode.batch.parallelism} and defaults to the number of available processors.
+     *
+     * @param parallelism the number of worker threads; values below 1 select the processor count
+     * @return A new {@link ForkJoinPool}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool barcodeRenderPool(@Value("${barcode.batch.parallelism:0}") int parallelism) {
+        return newPool("barcode-render-", parallelism);
+    }
+
+    /**
+     * Provides the pool used to decode the tiles of very large images in parallel.
+     * Its size is set with {@code barcode.read.parallelism} and defaults to the number of available processors.
+     *
+     * @param parallelism the number of worker threads; values below 1 select the processor count
+     * @return A new {@link ForkJoinPool}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool barcodeDecodePool(@Value("${barcode.read.parallelism:0}") int parallelism) {
+        return newPool("barcode-decode-", parallelism);
+    }
+
+    private static ForkJoinPool newPool(String namePrefix, int parallelism) {
+        int size = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(size, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(namePrefix + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
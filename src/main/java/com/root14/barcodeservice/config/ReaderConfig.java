@@ -0,0 +1,49 @@
+package com.root14.barcodeservice.config;
+
+import com.root14.barcodeservice.core.BarcodeReader;
+import com.root14.barcodeservice.core.DecodeStrategy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class configures the {@link BarcodeReader} shared by all read requests.
+ * Tiles of very large images and the fallback {@link DecodeStrategy strategies} are decoded on the
+ * {@code barcodeDecodePool} from {@link ExecutorConfig}.
+ */
+@Configuration
+public class ReaderConfig {
+
+    /**
+     * Provides the barcode reader.
+     * The fallback strategies are set with {@code barcode.read.strategies} as a comma-separated list of strategy keys
+     * (empty to disable them), and the time they may take per image with {@code barcode.read.strategy-budget-ms}.
+     * Images with more than {@code barcode.read.max-pixels} pixels are rejected before they are decoded, and
+     * multi-page images with more than {@code barcode.read.max-pages} pages or {@code barcode.read.max-total-pixels}
+     * pixels on all pages together.
+     *
+     * @param decodePool     the pool decoding tiles and strategies in parallel
+     * @param strategies     the keys of the fallback strategies
+     * @param budgetMillis   the time the strategies may take together for one image, in milliseconds
+     * @param maxPixels      the largest image accepted, in pixels
+     * @param maxPages       the largest number of pages accepted
+     * @param maxTotalPixels the largest multi-page image accepted, in pixels on all pages together
+     * @return A new {@link BarcodeReader}.
+     * @throws IllegalArgumentException if a strategy key is unknown
+     */
+    @Bean
+    public BarcodeReader barcodeReader(@Qualifier("barcodeDecodePool") ForkJoinPool decodePool,
+                                       @Value("${barcode.read.strategies:}") List<String> strategies,
+                                       @Value("${barcode.read.strategy-budget-ms:1000}") long budgetMillis,
+                                       @Value("${barcode.read.max-pixels:50000000}") long maxPixels,
+                                       @Value("${barcode.read.max-pages:100}") int maxPages,
+                                       @Value("${barcode.read.max-total-pixels:200000000}") long maxTotalPixels) {
+        return new BarcodeReader(decodePool, strategies.stream().map(DecodeStrategy::fromKey).toList(),
+                Duration.ofMillis(budgetMillis), maxPixels, maxPages, maxTotalPixels);
+    }
+}
@@ -0,0 +1,56 @@
+package com.root14.barcodeservice.config;
+
+import com.root14.barcodeservice.service.WarmupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs a one-line startup report once the application is ready to serve traffic.
+ *
+ * <p>The report contains the time from JVM start to ready, the part of it spent in the Spring context,
+ * the warm-up time if {@link WarmupService} ran, and the application class-data-sharing archive, if one was given.
+ * Tracking these per deploy shows how long it takes until requests are served at full speed.</p>
+ */
+@Component
+public class StartupReporter {
+    private static final Logger log = LoggerFactory.getLogger(StartupReporter.class);
+    private static final String SHARED_ARCHIVE_OPTION = "-XX:SharedArchiveFile=";
+
+    private final ObjectProvider<WarmupService> warmupService;
+
+    /**
+     * Constructs the reporter.
+     *
+     * @param warmupService the warm-up service, available only when {@code barcode.warmup.enabled} is set
+     */
+    public StartupReporter(ObjectProvider<WarmupService> warmupService) {
+        this.warmupService = warmupService;
+    }
+
+    /**
+     * Writes the startup report.
+     *
+     * @param event the ready event carrying the startup time of the application context
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        long sinceJvmStart = ManagementFactory.getRuntimeMXBean().getUptime();
+        WarmupService warmup = warmupService.getIfAvailable();
+        WarmupService.Report report = warmup != null ? warmup.getReport() : null;
+        String archive = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(argument -> argument.startsWith(SHARED_ARCHIVE_OPTION))
+                .map(argument -> argument.substring(SHARED_ARCHIVE_OPTION.length()))
+                .findFirst()
+                .orElse("none");
+
+        log.info("Startup report: ready {} ms after JVM start ({} ms in SpringApplication.run), warm-up {}, CDS archive {}",
+                sinceJvmStart, event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1,
+                report != null ? report.durationMillis() + " ms" : "disabled", archive);
+    }
+}
@@ -0,0 +1,35 @@
+package com.root14.barcodeservice.config;
+
+import com.root14.barcodeservice.core.SymbologyProvider;
+import com.root14.barcodeservice.core.SymbologyRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ServiceLoader;
+
+/**
+ * This class builds the {@link SymbologyRegistry} once at startup.
+ * The built-in writers are taken from the writer beans of {@link D2WriterProvider}, {@link IndustrialWriterProvider}
+ * and {@link ProductWriterProvider}; custom symbologies and formats come from {@link SymbologyProvider}s found
+ * through {@link ServiceLoader} and in the application context, in that order.
+ */
+@Configuration
+public class SymbologyConfig {
+
+    /**
+     * Provides the registry of all symbologies and output formats.
+     *
+     * @param applicationContext the context the built-in writer beans are resolved from
+     * @param providers          the {@link SymbologyProvider} beans, if any
+     * @return A new {@link SymbologyRegistry}.
+     */
+    @Bean
+    public SymbologyRegistry symbologyRegistry(ApplicationContext applicationContext, ObjectProvider<SymbologyProvider> providers) {
+        SymbologyRegistry registry = SymbologyRegistry.withBuiltIns(applicationContext::getBean);
+        ServiceLoader.load(SymbologyProvider.class).forEach(registry::register);
+        providers.orderedStream().forEach(registry::register);
+        return registry;
+    }
+}
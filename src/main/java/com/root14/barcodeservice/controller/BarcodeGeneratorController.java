@@ -1,18 +1,26 @@
 package com.root14.barcodeservice.controller;
 
 import com.google.zxing.WriterException;
+import com.root14.barcodeservice.core.MatrixRenderer;
+import com.root14.barcodeservice.core.OutputFormat;
+import com.root14.barcodeservice.core.SymbologyRegistry;
 import com.root14.barcodeservice.dto.ImageObject;
 import com.root14.barcodeservice.service.BarcodeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * REST controller for handling barcode generation requests.
@@ -24,6 +32,7 @@ import java.util.Optional;
  * Example request:
  * <pre>
  * GET /generate?type=CODE_128&data=12345678&width=300&height=100
+ * GET /generate?type=PDF417&data=12345678&width=600&height=200&format=svg
  * </pre>
  * <p>
  * Required parameters:
@@ -32,11 +41,14 @@ import java.util.Optional;
  *   <li><b>data</b> - The content to encode within the barcode.</li>
  *   <li><b>width</b> - The desired width of the barcode image.</li>
  *   <li><b>height</b> - The desired height of the barcode image.</li>
+ *   <li><b>format</b> - The output format: png (default), svg or pdf.</li>
  * </ul>
  * <p>
  * Response:
  * <ul>
- *   <li>HTTP 200 with image/png content if successful</li>
+ *   <li>HTTP 200 with a JSON {@link ImageObject} if successful</li>
+ *   <li>HTTP 200 with the raw image bytes if the {@code Accept} header names an image type
+ *   (e.g., {@code image/png}) or {@code raw=true} is given</li>
  *   <li>HTTP 400 if width or height is missing</li>
  * </ul>
  * <p>
@@ -47,16 +59,27 @@ import java.util.Optional;
  */
 @RestController
 public class BarcodeGeneratorController {
+    /** Response header carrying the UUID of a stored barcode in raw mode. */
+    public static final String UUID_HEADER = "X-Barcode-Uuid";
+    /** Response header carrying the creation timestamp in raw mode. */
+    public static final String CREATED_AT_HEADER = "X-Barcode-Created-At";
+    // a stored barcode never changes, so clients and proxies may keep it for as long as they like; the bytes of a
+    // re-rendered image may, which is why its ETag is weak
+    private static final CacheControl STORED_BARCODE_CACHING = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
     private final BarcodeService barcodeService;
+    private final SymbologyRegistry symbologyRegistry;
 
     /**
      * Constructs the BarcodeGeneratorController with the given BarcodeService.
      *
-     * @param barcodeService the service used to generate barcode images
+     * @param barcodeService    the service used to generate barcode images
+     * @param symbologyRegistry the registry of output formats used for content negotiation
      */
     @Autowired
-    public BarcodeGeneratorController(BarcodeService barcodeService) {
+    public BarcodeGeneratorController(BarcodeService barcodeService, SymbologyRegistry symbologyRegistry) {
         this.barcodeService = barcodeService;
+        this.symbologyRegistry = symbologyRegistry;
     }
 
     /**
@@ -64,14 +87,25 @@ public class BarcodeGeneratorController {
      *
      * <p>This endpoint accepts the barcode type (e.g., "QR", "CODE_128"), the data to encode,
      * optional dimensions (width and height), and a flag to store the generated barcode.
-     * It returns an {@link ImageObject} containing the UUID, image bytes, and creation timestamp.</p>
+     * By default it returns an {@link ImageObject} containing the UUID, image bytes, and creation timestamp.</p>
+     *
+     * <p>When the {@code Accept} header names the media type of a supported output format (e.g., {@code image/png}
+     * or {@code image/svg+xml}), or {@code raw=true} is given, the image bytes are written directly as the response
+     * body with {@code Content-Length} set. This avoids the base64 inflation of the JSON body. The UUID and creation
+     * timestamp are then sent in the {@value #UUID_HEADER} and {@value #CREATED_AT_HEADER} headers. Without an
+     * explicit {@code format}, the format is taken from the {@code Accept} header.</p>
      *
      * @param type   The type of barcode to generate (e.g., "QR", "CODE_128"). This parameter is **required**.
      * @param data   The data to be encoded in the barcode. This parameter is **required**.
      * @param width  The width of the barcode image in pixels (optional, defaults to 400).
      * @param height The height of the barcode image in pixels (optional, defaults to 400).
+     * @param format The output format: "png", "svg" or "pdf" (optional, defaults to "png" or the format named by
+     *               the {@code Accept} header). Vector formats are rendered straight from the barcode modules and stay
+     *               sharp at any print size.
      * @param store  If {@code true}, the generated barcode will be persisted to the database (optional, defaults to {@code false}).
-     * @return A {@link ResponseEntity} containing the generated {@link ImageObject} on success.
+     * @param raw    If {@code true}, the image bytes are returned directly instead of JSON (optional, defaults to {@code false}).
+     * @param accept The {@code Accept} header of the request, used for content negotiation.
+     * @return A {@link ResponseEntity} containing the generated {@link ImageObject} or the raw image on success.
      * Returns a 404 Not Found if the barcode generation service returns an empty result,
      * or a 500 Internal Server Error if an unexpected error occurs during generation.
      * @throws IOException     If an I/O error occurs during barcode generation.
@@ -83,23 +117,67 @@ public class BarcodeGeneratorController {
             @RequestParam(value = "data", required = true) String data,
             @RequestParam(value = "width", required = false, defaultValue = "400") int width,
             @RequestParam(value = "height", required = false, defaultValue = "400") int height,
-            @RequestParam(value = "store", required = false, defaultValue = "false") boolean store
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "store", required = false, defaultValue = "false") boolean store,
+            @RequestParam(value = "raw", required = false, defaultValue = "false") boolean raw,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
     ) throws IOException, WriterException {
-        Optional<ImageObject> storedImage = barcodeService.generate(type, data, width, height, store);
+        MatrixRenderer negotiated = negotiate(accept, format);
+        String outputFormat = negotiated != null ? negotiated.format() : (format != null ? format : OutputFormat.PNG.format());
+
+        Optional<ImageObject> storedImage = barcodeService.generate(type, data, width, height, outputFormat, store);
 
         if (storedImage.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
         ImageObject image = storedImage.get();
+        if (negotiated != null || raw) {
+            MatrixRenderer rawFormat = negotiated != null ? negotiated : symbologyRegistry.renderer(outputFormat);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(rawFormat.contentType()))
+                    .contentLength(image.barcode().length)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename="
+                            + (image.uuid() != null ? image.uuid() : "barcode") + "." + rawFormat.format())
+                    .header(CREATED_AT_HEADER, image.createdAt().toString());
+            if (image.uuid() != null) {
+                response.header(UUID_HEADER, image.uuid());
+            }
+            return response.body(image.barcode());
+        }
         return ResponseEntity.ok().body(new ImageObject(image.uuid(), image.barcode(), image.createdAt()));
     }
 
+    /**
+     * Returns the output format explicitly requested through the {@code Accept} header, if any.
+     * Wildcards never select raw output, so browsers and generic clients keep getting JSON.
+     */
+    private MatrixRenderer negotiate(String accept, String format) {
+        if (accept == null) {
+            return null;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                continue;
+            }
+            Optional<MatrixRenderer> outputFormat = symbologyRegistry.rendererForContentType(mediaType.getType() + "/" + mediaType.getSubtype());
+            if (outputFormat.isPresent() && (format == null || outputFormat.get().format().equalsIgnoreCase(format))) {
+                return outputFormat.get();
+            }
+        }
+        return null;
+    }
+
     /**
      * Retrieves a previously stored barcode image by its UUID.
      *
      * <p>This endpoint fetches a barcode associated with the provided UUID. If found, it returns the barcode
-     * image as a PNG file with a 200 OK status. The image is sent with an `inline` content disposition,
+     * image as a PNG file with a 200 OK status. The image is rendered again from the stored spec.
+     * A stored barcode never changes, so the response carries an {@code ETag} derived from the UUID and is marked
+     * {@code immutable} for a year. The ETag is weak: the image is rendered on every request, and another version of
+     * a writer may produce different bytes for the same barcode. A request whose {@code If-None-Match} header names
+     * that ETag is answered with 304 Not Modified without looking the barcode up, so any well-formed UUID gets a 304
+     * that way, including one that was never stored. The image is sent with an `inline` content disposition,
      * suggesting browsers display it directly. If no barcode is found for the given UUID, a 404 Not Found
      * status is returned.</p>
      *
@@ -107,11 +185,19 @@ public class BarcodeGeneratorController {
      * @return A {@link ResponseEntity} containing:
      * <ul>
      * <li>The barcode image as a PNG byte array with HTTP status 200 OK if found.</li>
+     * <li>HTTP status 304 Not Modified if the client already holds the image.</li>
      * <li>HTTP status 404 Not Found if no barcode is associated with the provided UUID.</li>
      * </ul>
+     * @throws IOException     If an I/O error occurs while rendering the barcode.
+     * @throws WriterException If an error occurs while encoding the barcode.
      */
     @GetMapping("/getBarcode")
-    public ResponseEntity<?> getBarcode(@RequestParam(value = "uuid", required = true) String uuid) {
+    public ResponseEntity<?> getBarcode(@RequestParam(value = "uuid", required = true) String uuid,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException, WriterException {
+        String etag = "W/\"" + UUID.fromString(uuid) + "\"";
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(STORED_BARCODE_CACHING).build();
+        }
         Optional<ImageObject> storedImage = barcodeService.findBarcode(uuid);
 
         if (storedImage.isEmpty()) {
@@ -119,8 +205,33 @@ public class BarcodeGeneratorController {
         }
         ImageObject image = storedImage.get();
         return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(STORED_BARCODE_CACHING)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + image.uuid() + ".png")
                 .contentType(MediaType.IMAGE_PNG)
+                .contentLength(image.barcode().length)
                 .body(image.barcode());
     }
+
+    /**
+     * Returns whether an {@code If-None-Match} header names the given ETag, using the weak comparison RFC 9110
+     * prescribes for it. A {@code *} is left to the regular conditional request handling, as it needs the barcode to
+     * be looked up.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaqueTag(candidate.trim()).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
 }
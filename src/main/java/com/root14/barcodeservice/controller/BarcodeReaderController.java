@@ -1,24 +1,35 @@
 package com.root14.barcodeservice.controller;
 
 import com.root14.barcodeservice.core.BarcodeResult;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.core.PageResult;
+import com.root14.barcodeservice.dto.PageReadResult;
 import com.root14.barcodeservice.dto.ReadDto;
 import com.root14.barcodeservice.service.BarcodeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.util.List;
 
 /**
  * REST controller responsible for handling barcode reading requests.
- * Supports reading barcodes from both multipart/form-data (e.g., image file)
- * and application/json payloads.
+ * Supports reading barcodes from multipart/form-data (e.g., image file), raw image bodies
+ * ({@code application/octet-stream} or {@code image/*}) and application/json payloads.
+ * <p>
+ * Decoding hints are selected by name through the {@code profile} parameter (see {@link DecodeProfile}),
+ * e.g. {@code default}, {@code retail-1d}, {@code qr-only} or {@code try-harder}.
+ * With {@code multi=true}, every barcode in the image is decoded in one pass and returned as a list,
+ * each with the points locating it in the image. With {@code pages=true}, every page of a multi-page TIFF or
+ * frame of a GIF is read that way and the barcodes are returned per page; {@code limit} stops reading further pages
+ * once that many barcodes were found.
  */
 @RestController
 public class BarcodeReaderController {
@@ -39,43 +50,123 @@ public class BarcodeReaderController {
      * Reads a barcode from an uploaded image file.
      *
      * @param barcodeFile the uploaded file containing the barcode
-     * @param hints optional decoding hints to help the barcode reader
-     * @return a {@link ResponseEntity} containing the decoded barcode result
+     * @param profile the name of the {@link DecodeProfile} to decode with (optional, defaults to "default")
+     * @param multi if {@code true}, every barcode in the image is returned as a list (optional, defaults to {@code false})
+     * @param pages if {@code true}, every page of a multi-page image is read and the barcodes are returned per page
+     *              (optional, defaults to {@code false})
+     * @param limit in page mode, the number of barcodes after which no further pages are read (optional, defaults to
+     *              {@code 0}, reading every page)
+     * @return a {@link ResponseEntity} containing the decoded barcode result, all results in multi mode, or the
+     * results of each page in page mode
      * @throws NotFoundException if no barcode is found in the image
+     * @throws IllegalArgumentException if the profile is unknown
      * @throws IOException if an I/O error occurs while reading the file
      */
     @PostMapping(value = "/read", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> readBarcode(
             @RequestParam(value = "data") MultipartFile barcodeFile,
-            @RequestParam(value = "hint", required = false) Map<DecodeHintType, Object> hints)
+            @RequestParam(value = "profile", required = false, defaultValue = "default") String profile,
+            @RequestParam(value = "multi", required = false, defaultValue = "false") boolean multi,
+            @RequestParam(value = "pages", required = false, defaultValue = "false") boolean pages,
+            @RequestParam(value = "limit", required = false, defaultValue = "0") int limit)
             throws NotFoundException, IOException {
 
-        Result result = barcodeService.read(barcodeFile, hints);
-        return ResponseEntity.ok().body(new BarcodeResult(
-                result.getTimestamp(),
-                result.getText(),
-                result.getBarcodeFormat()));
+        DecodeProfile decodeProfile = DecodeProfile.fromKey(profile);
+        if (pages) {
+            return ResponseEntity.ok().body(toPageResults(barcodeService.readPages(barcodeFile, decodeProfile, limit)));
+        }
+        if (multi) {
+            return ResponseEntity.ok().body(toBarcodeResults(barcodeService.readAll(barcodeFile, decodeProfile)));
+        }
+        Result result = barcodeService.read(barcodeFile, decodeProfile);
+        return ResponseEntity.ok().body(BarcodeResult.of(result));
     }
 
     /**
-     * Reads a barcode from base64-encoded or binary data provided in a JSON request.
+     * Reads a barcode from an image sent as the raw request body, e.g. with {@code curl --data-binary @label.png}.
+     * The body is read once into an array of its {@code Content-Length} and decoded from there, so this is the
+     * cheapest way to send large images.
+     *
+     * @param body the image bytes
+     * @param contentLength the {@code Content-Length} header, if the client sent one
+     * @param profile the name of the {@link DecodeProfile} to decode with (optional, defaults to "default")
+     * @param multi if {@code true}, every barcode in the image is returned as a list (optional, defaults to {@code false})
+     * @param pages if {@code true}, every page of a multi-page image is read and the barcodes are returned per page
+     *              (optional, defaults to {@code false})
+     * @param limit in page mode, the number of barcodes after which no further pages are read (optional, defaults to
+     *              {@code 0}, reading every page)
+     * @return a {@link ResponseEntity} containing the decoded barcode result, all results in multi mode, or the
+     * results of each page in page mode
+     * @throws NotFoundException if no barcode is found in the image
+     * @throws IllegalArgumentException if the profile is unknown or the body is not a valid image
+     * @throws IOException if an I/O error occurs while reading the body
+     */
+    @PostMapping(value = "/read", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public ResponseEntity<?> readBarcode(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            @RequestParam(value = "profile", required = false, defaultValue = "default") String profile,
+            @RequestParam(value = "multi", required = false, defaultValue = "false") boolean multi,
+            @RequestParam(value = "pages", required = false, defaultValue = "false") boolean pages,
+            @RequestParam(value = "limit", required = false, defaultValue = "0") int limit)
+            throws NotFoundException, IOException {
+
+        DecodeProfile decodeProfile = DecodeProfile.fromKey(profile);
+        long length = contentLength != null ? contentLength : -1;
+        if (pages) {
+            return ResponseEntity.ok().body(toPageResults(barcodeService.readPages(body, length, decodeProfile, limit)));
+        }
+        if (multi) {
+            return ResponseEntity.ok().body(toBarcodeResults(barcodeService.readAll(body, length, decodeProfile)));
+        }
+        Result result = barcodeService.read(body, length, decodeProfile);
+        return ResponseEntity.ok().body(BarcodeResult.of(result));
+    }
+
+    /**
+     * Reads a barcode from base64-encoded data provided in a JSON request.
      *
      * @param data the request body containing barcode data
-     * @param hints optional decoding hints to help the barcode reader
-     * @return a {@link ResponseEntity} containing the decoded barcode result
+     * @param profile the name of the {@link DecodeProfile} to decode with (optional, defaults to "default")
+     * @param multi if {@code true}, every barcode in the image is returned as a list (optional, defaults to {@code false})
+     * @param pages if {@code true}, every page of a multi-page image is read and the barcodes are returned per page
+     *              (optional, defaults to {@code false})
+     * @param limit in page mode, the number of barcodes after which no further pages are read (optional, defaults to
+     *              {@code 0}, reading every page)
+     * @return a {@link ResponseEntity} containing the decoded barcode result, all results in multi mode, or the
+     * results of each page in page mode
      * @throws NotFoundException if no barcode is found in the provided data
+     * @throws IllegalArgumentException if the profile is unknown
      * @throws IOException if an I/O error occurs during decoding
      */
     @PostMapping(value = "/read", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> readBarcode(
             @RequestBody ReadDto data,
-            @RequestParam(value = "hint", required = false) Map<DecodeHintType, Object> hints)
+            @RequestParam(value = "profile", required = false, defaultValue = "default") String profile,
+            @RequestParam(value = "multi", required = false, defaultValue = "false") boolean multi,
+            @RequestParam(value = "pages", required = false, defaultValue = "false") boolean pages,
+            @RequestParam(value = "limit", required = false, defaultValue = "0") int limit)
             throws NotFoundException, IOException {
 
-        Result result = barcodeService.read(data.data(), hints);
-        return ResponseEntity.ok().body(new BarcodeResult(
-                result.getTimestamp(),
-                result.getText(),
-                result.getBarcodeFormat()));
+        DecodeProfile decodeProfile = DecodeProfile.fromKey(profile);
+        if (data.data() == null) {
+            throw new IllegalArgumentException("data is required.");
+        }
+        if (pages) {
+            return ResponseEntity.ok().body(toPageResults(barcodeService.readPages(data.data(), decodeProfile, limit)));
+        }
+        if (multi) {
+            return ResponseEntity.ok().body(toBarcodeResults(barcodeService.readAll(data.data(), decodeProfile)));
+        }
+        Result result = barcodeService.read(data.data(), decodeProfile);
+        return ResponseEntity.ok().body(BarcodeResult.of(result));
+    }
+
+    private static List<BarcodeResult> toBarcodeResults(List<Result> results) {
+        return results.stream().map(BarcodeResult::of).toList();
+    }
+
+    private static List<PageReadResult> toPageResults(List<PageResult> pages) {
+        return pages.stream().map(PageReadResult::of).toList();
     }
 }
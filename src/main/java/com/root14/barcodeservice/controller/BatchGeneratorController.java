@@ -0,0 +1,131 @@
+package com.root14.barcodeservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.root14.barcodeservice.dto.BatchItemResult;
+import com.root14.barcodeservice.dto.GenerateSpec;
+import com.root14.barcodeservice.service.BatchGenerationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * REST controller for generating many barcodes in a single request.
+ * <p>
+ * Example request:
+ * <pre>
+ * POST /generate/batch?store=false
+ * Content-Type: application/json
+ *
+ * [{"type": "qr", "data": "sku-1"}, {"type": "code128", "data": "sku-2", "width": 300, "height": 100}]
+ * </pre>
+ * <p>
+ * The response is streamed while the batch is rendered, in completion order:
+ * <ul>
+ *   <li>{@code application/x-ndjson} (default) - one {@link BatchItemResult} JSON object per line.</li>
+ *   <li>{@code application/zip} (when requested through the {@code Accept} header) - one {@code <index>.png}
+ *   entry per generated barcode, followed by an {@code errors.ndjson} entry if any item failed.</li>
+ * </ul>
+ * Failed items are reported individually and do not abort the batch.
+ */
+@RestController
+public class BatchGeneratorController {
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+    private final BatchGenerationService batchGenerationService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the BatchGeneratorController.
+     *
+     * @param batchGenerationService the service used to render the batch
+     * @param objectMapper           the mapper used to write NDJSON lines
+     */
+    @Autowired
+    public BatchGeneratorController(BatchGenerationService batchGenerationService, ObjectMapper objectMapper) {
+        this.batchGenerationService = batchGenerationService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Generates all barcodes in the request body and streams the results back as they complete.
+     *
+     * @param specs  The barcodes to generate. This parameter is **required**.
+     * @param store  If {@code true}, the generated barcodes will be persisted to the database (optional, defaults to {@code false}).
+     * @param accept The {@code Accept} header; {@code application/zip} selects a ZIP archive, anything else NDJSON.
+     * @return A {@link ResponseEntity} whose body streams the results.
+     * @throws IllegalArgumentException if the batch is empty or larger than {@code barcode.batch.max-items}
+     */
+    @PostMapping(value = "/generate/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> generateBatch(
+            @RequestBody List<GenerateSpec> specs,
+            @RequestParam(value = "store", required = false, defaultValue = "false") boolean store,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // fail fast on an invalid batch, before the response is committed
+        batchGenerationService.validate(specs);
+
+        if (accept != null && MediaType.parseMediaTypes(accept).stream().anyMatch(APPLICATION_ZIP::equalsTypeAndSubtype)) {
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_ZIP)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=barcodes.zip")
+                    .body(out -> writeZip(specs, store, out));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> writeNdjson(specs, store, out));
+    }
+
+    private void writeNdjson(List<GenerateSpec> specs, boolean store, OutputStream out) throws IOException {
+        batchGenerationService.generate(specs, store, result -> {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        });
+    }
+
+    private void writeZip(List<GenerateSpec> specs, boolean store, OutputStream out) throws IOException {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        ZipOutputStream zip = new ZipOutputStream(out);
+
+        batchGenerationService.generate(specs, store, result -> {
+            if (result.isSuccess()) {
+                zip.putNextEntry(storedEntry(result.index() + ".png", result.barcode()));
+                zip.write(result.barcode());
+                zip.closeEntry();
+                zip.flush();
+            } else {
+                errors.write(objectMapper.writeValueAsBytes(result));
+                errors.write('\n');
+            }
+        });
+
+        if (errors.size() > 0) {
+            zip.putNextEntry(new ZipEntry("errors.ndjson"));
+            errors.writeTo(zip);
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    // PNG data is already deflated, so store it as-is instead of compressing it a second time.
+    private static ZipEntry storedEntry(String name, byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        return entry;
+    }
+}
@@ -0,0 +1,105 @@
+package com.root14.barcodeservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.dto.BatchReadResult;
+import com.root14.barcodeservice.service.BatchReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * REST controller for reading the barcodes of many images in a single request.
+ * <p>
+ * The images are uploaded either as a multipart request with one {@code data} part per image, or as a ZIP archive
+ * sent as the request body:
+ * <pre>
+ * POST /read/batch?profile=retail-1d
+ * Content-Type: application/zip
+ *
+ * &lt;archive bytes&gt;
+ * </pre>
+ * A ZIP body is read entry by entry while the batch is decoded, so archives of any size can be sent without being
+ * held in memory. Multipart parts are spooled by the servlet container before the request reaches this controller,
+ * which makes ZIP the better choice for very large batches.
+ * <p>
+ * The response is {@code application/x-ndjson}, streamed in completion order: one {@link BatchReadResult} JSON
+ * object per image, carrying its position and file name. Failed images are reported individually and do not abort
+ * the batch.
+ */
+@RestController
+public class BatchReaderController {
+    private final BatchReadService batchReadService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the BatchReaderController.
+     *
+     * @param batchReadService the service used to read the batch
+     * @param objectMapper     the mapper used to write NDJSON lines
+     */
+    @Autowired
+    public BatchReaderController(BatchReadService batchReadService, ObjectMapper objectMapper) {
+        this.batchReadService = batchReadService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the barcodes of all uploaded files and streams the results back as they complete.
+     *
+     * @param files   The uploaded images, one {@code data} part each. This parameter is **required**.
+     * @param profile the name of the {@link DecodeProfile} to decode with (optional, defaults to "default")
+     * @return A {@link ResponseEntity} whose body streams the results.
+     * @throws IllegalArgumentException if no file was uploaded or the profile is unknown
+     */
+    @PostMapping(value = "/read/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> readBatch(
+            @RequestParam(value = "data") List<MultipartFile> files,
+            @RequestParam(value = "profile", required = false, defaultValue = "default") String profile) {
+        // fail fast on an invalid batch, before the response is committed
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item.");
+        }
+        DecodeProfile decodeProfile = DecodeProfile.fromKey(profile);
+        return ndjson(batchReadService.multipartEntries(files), decodeProfile);
+    }
+
+    /**
+     * Reads the barcodes of all files in the ZIP archive sent as the request body and streams the results back as
+     * they complete. Directories in the archive are skipped.
+     *
+     * @param body    the ZIP archive
+     * @param profile the name of the {@link DecodeProfile} to decode with (optional, defaults to "default")
+     * @return A {@link ResponseEntity} whose body streams the results.
+     * @throws IllegalArgumentException if the profile is unknown
+     */
+    @PostMapping(value = "/read/batch", consumes = {"application/zip", "application/x-zip-compressed"})
+    public ResponseEntity<StreamingResponseBody> readBatchZip(
+            InputStream body,
+            @RequestParam(value = "profile", required = false, defaultValue = "default") String profile) {
+        DecodeProfile decodeProfile = DecodeProfile.fromKey(profile);
+        return ndjson(batchReadService.zipEntries(body), decodeProfile);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(BatchReadService.EntrySource source, DecodeProfile profile) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> writeNdjson(source, profile, out));
+    }
+
+    private void writeNdjson(BatchReadService.EntrySource source, DecodeProfile profile, OutputStream out) throws IOException {
+        batchReadService.read(source, profile, result -> {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.root14.barcodeservice.controller;
+
+import com.root14.barcodeservice.cache.CacheStatistics;
+import com.root14.barcodeservice.cache.MonitoredCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller exposing the statistics of the in-process caches.
+ * <p>
+ * Example request:
+ * <pre>
+ * GET /cache/stats
+ * </pre>
+ * The response lists hit, miss and eviction counts together with the current size and the
+ * configured budget of every {@link MonitoredCache}.
+ */
+@RestController
+public class CacheController {
+    private final List<MonitoredCache> caches;
+
+    /**
+     * Constructs the CacheController with all caches registered in the application context.
+     *
+     * @param caches the caches to report on
+     */
+    @Autowired
+    public CacheController(List<MonitoredCache> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * Returns a statistics snapshot for every in-process cache.
+     *
+     * @return a {@link ResponseEntity} containing one {@link CacheStatistics} per cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatistics>> getStatistics() {
+        return ResponseEntity.ok(caches.stream().map(MonitoredCache::statistics).toList());
+    }
+}
@@ -13,6 +13,9 @@ import java.util.Map;
  * This class implements the {@link Generator} interface and provides various overloaded
  * methods to generate barcode images with different configurations, including
  * custom image configurations and encoding hints.
+ *
+ * <p>Instances are mutable through their setters and are not safe to share between threads;
+ * create one per generation call.</p>
  */
 public class BarcodeGenerator implements Generator {
     private Writer writer;
@@ -90,11 +93,26 @@ public class BarcodeGenerator implements Generator {
      * @throws WriterException If an error occurs during barcode encoding.
      */
     public BufferedImage generateQr(String data, int width, int height, MatrixToImageConfig config, Map<EncodeHintType, Object> hints) throws WriterException {
-        BitMatrix bitMatrix = writer.encode(data, barcodeFormat, width, height, hints);
+        BitMatrix bitMatrix = encode(data, width, height, hints);
 
         return (config != null) ? MatrixToImageWriter.toBufferedImage(bitMatrix, config) : MatrixToImageWriter.toBufferedImage(bitMatrix);
     }
 
+    /**
+     * Encodes the data into a {@link BitMatrix} without rendering it to an image.
+     * Use this together with {@link PngMatrixWriter} to produce PNG output without a {@link BufferedImage}.
+     *
+     * @param data The data to encode in the barcode.
+     * @param width The desired width of the barcode matrix.
+     * @param height The desired height of the barcode matrix.
+     * @param hints An optional {@link Map} of {@link EncodeHintType} to {@link Object} providing encoding hints (can be null for default).
+     * @return A {@link BitMatrix} where set bits are the dark modules of the barcode.
+     * @throws WriterException If an error occurs during barcode encoding.
+     */
+    public BitMatrix encode(String data, int width, int height, Map<EncodeHintType, Object> hints) throws WriterException {
+        return writer.encode(data, barcodeFormat, width, height, hints);
+    }
+
     /**
      * Retrieves the currently set barcode format.
      *
@@ -1,14 +1,41 @@
 package com.root14.barcodeservice.core;
 
 import com.google.zxing.*;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
 import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+import com.google.zxing.multi.MultipleBarcodeReader;
+import com.google.zxing.multi.qrcode.QRCodeMultiReader;
+import com.root14.barcodeservice.exception.DecodeTimeoutException;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A utility class for reading and decoding barcode images.
@@ -16,13 +43,181 @@ import java.util.Map;
  * which acts as an orchestrator for various barcode decoding algorithms.
  * This class abstracts the image input using {@link InputStream} to remain independent
  * of specific frameworks like Spring.
+ *
+ * <p>Luminance is taken straight from the decoded raster by {@link RasterLuminanceSource} instead of
+ * converting the image to ARGB first. Whenever the image reader can decode straight to 8-bit grayscale (grayscale
+ * images, and the Y channel of YCbCr JPEGs), it is asked to, which skips colour conversion entirely. Converted luminance goes into pooled buffers, so a read allocates
+ * little more than the decoded raster itself.</p>
+ *
+ * <p>Decoding with a {@link DecodeProfile} reuses a reader configured once per profile and thread. The class
+ * itself keeps no per-call state and can be shared between threads.</p>
+ *
+ * <p>Before any pixel is decoded, the dimensions in the image header are checked against a pixel limit, and larger
+ * images are rejected with an {@link ImageTooLargeException}. A small upload can announce a huge image, so this is
+ * what keeps a single decompression bomb from pinning a worker and flooding the heap.</p>
+ *
+ * <p>Single reads are staged so that large photos are not binarized at full resolution when the barcode is big
+ * enough to be found in a smaller image. Images above 4 MP are first decoded with source subsampling to about
+ * 2 MP; only if that fails is the image decoded again at full resolution. With a tile executor, images above
+ * 8 MP are then split into overlapping tiles decoded in parallel, and then the full frame is tried.
+ * If all of that fails, the configured {@link DecodeStrategy fallback strategies} (other binarizer, inverted and
+ * rotated images, other hints) run on the same luminance, two at a time. The first success wins, and no further
+ * strategy starts once the per-image time budget is spent. Result points are always reported in the coordinates of the
+ * original image.</p>
+ *
+ * <p>Multi-page TIFFs and animated GIFs are read with {@link #readPages}, which decodes the pages in parallel and
+ * can stop once enough barcodes were found. The number of pages and their pixels in total are limited, so a small
+ * file cannot make the reader decode thousands of pages.</p>
  */
 public class BarcodeReader {
+    // Images above this size are first decoded subsampled to about SUBSAMPLED_PIXELS.
+    private static final long SUBSAMPLE_ABOVE_PIXELS = 4_000_000;
+    private static final long SUBSAMPLED_PIXELS = 2_000_000;
+    // Images above this size are decoded in tiles at full resolution.
+    private static final long TILE_ABOVE_PIXELS = 8_000_000;
+    private static final int TILE_SIZE = 2048;
+    private static final int TILE_OVERLAP = 256;
+    // Pages of a multi-page image decoded at once; each holds its raster until it is decoded.
+    private static final int MAX_PAGES_IN_FLIGHT = 4;
+    // Fallback strategies of one image decoded at once; the others wait for a slot, so one image that cannot be
+    // decoded occupies at most this many threads of the decode pool.
+    private static final int MAX_STRATEGIES_IN_FLIGHT = 2;
+    /** The default limit on the pixels of an image, about a 48 MP camera's. */
+    public static final long DEFAULT_MAX_PIXELS = 50_000_000;
+    /** The default limit on the pages of a multi-page image. */
+    public static final int DEFAULT_MAX_PAGES = 100;
+    /** The default limit on the pixels of all pages of a multi-page image together. */
+    public static final long DEFAULT_MAX_TOTAL_PIXELS = 200_000_000;
+
+    private static final LuminanceBufferPool BUFFERS = new LuminanceBufferPool();
+
+    static {
+        // decode uploads in memory; the default is a temporary file per read
+        ImageIO.setUseCache(false);
+    }
+
+    private final Executor decodeExecutor;
+    private final List<DecodeStrategy> strategies;
+    private final Duration strategyBudget;
+    private final long maxPixels;
+    private final int maxPages;
+    private final long maxTotalPixels;
+
+    /**
+     * Creates a reader that decodes large images subsampled first, then at full resolution, without tiling or
+     * fallback strategies.
+     */
+    public BarcodeReader() {
+        this(null);
+    }
+
+    /**
+     * Creates a reader that additionally decodes very large images in tiles on the given executor.
+     *
+     * @param decodeExecutor the executor decoding tiles in parallel, should be bounded; {@code null} disables tiling
+     */
+    public BarcodeReader(Executor decodeExecutor) {
+        this(decodeExecutor, List.of(), Duration.ZERO);
+    }
+
+    /**
+     * Creates a reader that decodes very large images in tiles and, when an image cannot be decoded, runs the given
+     * fallback strategies concurrently on the executor.
+     *
+     * @param decodeExecutor the executor decoding tiles and strategies in parallel, should be bounded;
+     *                       {@code null} disables tiling and runs the strategies one after another
+     * @param strategies     the strategies tried when the first attempt finds nothing, in order of preference;
+     *                       {@link DecodeStrategy#HYBRID} is the first attempt and is skipped
+     * @param strategyBudget the time the strategies may take together for one image; strategies not started by then
+     *                       are cancelled
+     */
+    public BarcodeReader(Executor decodeExecutor, Collection<DecodeStrategy> strategies, Duration strategyBudget) {
+        this(decodeExecutor, strategies, strategyBudget, DEFAULT_MAX_PIXELS);
+    }
+
+    /**
+     * Creates a reader like {@link #BarcodeReader(Executor, Collection, Duration)} that rejects images with more
+     * than the given number of pixels. The dimensions are taken from the image header, before anything is decoded.
+     *
+     * @param decodeExecutor the executor decoding tiles and strategies in parallel, should be bounded;
+     *                       {@code null} disables tiling and runs the strategies one after another
+     * @param strategies     the strategies tried when the first attempt finds nothing, in order of preference;
+     *                       {@link DecodeStrategy#HYBRID} is the first attempt and is skipped
+     * @param strategyBudget the time the strategies may take together for one image; strategies not started by then
+     *                       are cancelled
+     * @param maxPixels      the largest width times height accepted
+     */
+    public BarcodeReader(Executor decodeExecutor, Collection<DecodeStrategy> strategies, Duration strategyBudget,
+                         long maxPixels) {
+        this(decodeExecutor, strategies, strategyBudget, maxPixels, DEFAULT_MAX_PAGES, DEFAULT_MAX_TOTAL_PIXELS);
+    }
+
+    /**
+     * Creates a reader like {@link #BarcodeReader(Executor, Collection, Duration, long)} that also limits the pages
+     * {@link #readPages} reads from one image.
+     *
+     * @param decodeExecutor the executor decoding tiles and strategies in parallel, should be bounded;
+     *                       {@code null} disables tiling and runs the strategies one after another
+     * @param strategies     the strategies tried when the first attempt finds nothing, in order of preference;
+     *                       {@link DecodeStrategy#HYBRID} is the first attempt and is skipped
+     * @param strategyBudget the time the strategies may take together for one image; strategies not started by then
+     *                       are cancelled
+     * @param maxPixels      the largest width times height accepted
+     * @param maxPages       the largest number of pages accepted
+     * @param maxTotalPixels the largest sum of width times height of all pages accepted
+     */
+    public BarcodeReader(Executor decodeExecutor, Collection<DecodeStrategy> strategies, Duration strategyBudget,
+                         long maxPixels, int maxPages, long maxTotalPixels) {
+        this.maxPixels = maxPixels;
+        this.maxPages = maxPages;
+        this.maxTotalPixels = maxTotalPixels;
+        this.decodeExecutor = decodeExecutor;
+        this.strategies = strategies.stream().filter(strategy -> strategy != DecodeStrategy.HYBRID).distinct().toList();
+        this.strategyBudget = strategyBudget;
+    }
+
     /**
-     * Reads and decodes a barcode from the given {@link InputStream}.
-     * The method processes the input stream to create a {@link BufferedImage},
-     * converts it into a {@link BinaryBitmap}, and then uses {@link MultiFormatReader}
-     * to decode the barcode with optional hints.
+     * Reads and decodes a barcode from the given {@link InputStream} using a named {@link DecodeProfile}.
+     * The method decodes the image stream, converts it into a {@link BinaryBitmap} through a
+     * {@link RasterLuminanceSource}, and decodes it with the profile's pre-configured {@link MultiFormatReader},
+     * which is reused by the calling thread.
+     *
+     * @param inputStreamData The {@link InputStream} containing the barcode image data.
+     * @param profile The {@link DecodeProfile} selecting the decoding hints.
+     * @return A {@link Result} object containing the decoded barcode information.
+     * @throws IOException If an I/O error occurs while reading the image stream.
+     * @throws NotFoundException If no barcode can be found or decoded from the image.
+     * @throws IllegalArgumentException If the input stream does not contain a valid image.
+     * @throws ImageTooLargeException If the image has more pixels than this reader accepts.
+     * @throws DecodeTimeoutException If the fallback strategies ran out of time before a barcode was found.
+     */
+    public Result read(InputStream inputStreamData, DecodeProfile profile) throws IOException, NotFoundException {
+        return readStaged(ImageIO.createImageInputStream(inputStreamData),
+                (bitmap, strategy) -> profile.reader(strategy).decodeWithState(bitmap));
+    }
+
+    /**
+     * Reads and decodes a barcode from an image already held in memory, like {@link #read(InputStream, DecodeProfile)}.
+     * The image is decoded straight from the array, without the copy an {@link InputStream} would need.
+     *
+     * @param image The bytes of the barcode image.
+     * @param profile The {@link DecodeProfile} selecting the decoding hints.
+     * @return A {@link Result} object containing the decoded barcode information.
+     * @throws IOException If an I/O error occurs while decoding the image.
+     * @throws NotFoundException If no barcode can be found or decoded from the image.
+     * @throws IllegalArgumentException If the array does not contain a valid image.
+     * @throws ImageTooLargeException If the image has more pixels than this reader accepts.
+     * @throws DecodeTimeoutException If the fallback strategies ran out of time before a barcode was found.
+     */
+    public Result read(byte[] image, DecodeProfile profile) throws IOException, NotFoundException {
+        return readStaged(new ByteArrayImageInputStream(image),
+                (bitmap, strategy) -> profile.reader(strategy).decodeWithState(bitmap));
+    }
+
+    /**
+     * Reads and decodes a barcode from the given {@link InputStream} with ad hoc hints.
+     * Without hints, the image is decoded with {@link DecodeProfile#DEFAULT}; otherwise a reader is set up for
+     * this call only, so prefer {@link #read(InputStream, DecodeProfile)} on hot paths.
      *
      * @param inputStreamData The {@link InputStream} containing the barcode image data.
      * @param hints An optional {@link Map} of {@link DecodeHintType} to {@link Object} providing decoding hints.
@@ -30,17 +225,493 @@ public class BarcodeReader {
      * @throws IOException If an I/O error occurs while reading the image stream.
      * @throws NotFoundException If no barcode can be found or decoded from the image.
      * @throws IllegalArgumentException If the input stream does not contain a valid image.
+     * @throws ImageTooLargeException If the image has more pixels than this reader accepts.
+     * @throws DecodeTimeoutException If the fallback strategies ran out of time before a barcode was found.
      */
     public Result read(InputStream inputStreamData, Map<DecodeHintType, Object> hints) throws IOException, NotFoundException {
-        BufferedImage bufferedImage = ImageIO.read(inputStreamData);
+        if (hints == null || hints.isEmpty()) {
+            return read(inputStreamData, DecodeProfile.DEFAULT);
+        }
+        return readStaged(ImageIO.createImageInputStream(inputStreamData), (bitmap, strategy) -> {
+            Map<DecodeHintType, Object> combined = new EnumMap<>(DecodeHintType.class);
+            combined.putAll(hints);
+            combined.putAll(strategy.getHints());
+            return new MultiFormatReader().decode(bitmap, combined);
+        });
+    }
+
+    /**
+     * Reads every barcode found in the given {@link InputStream}, e.g. all codes on a shipping label.
+     * The image is decoded and binarized once. QR codes are located together by {@link QRCodeMultiReader}; all other
+     * formats allowed by the profile are found by {@link GenericMultipleBarcodeReader}, which searches the regions
+     * around each symbol it decodes. Symbols found by both are reported once.
+     *
+     * @param inputStreamData The {@link InputStream} containing the barcode image data.
+     * @param profile The {@link DecodeProfile} selecting the decoding hints.
+     * @return The decoded barcodes, with result points in image coordinates; never empty.
+     * @throws IOException If an I/O error occurs while reading the image stream.
+     * @throws NotFoundException If no barcode can be found or decoded from the image.
+     * @throws IllegalArgumentException If the input stream does not contain a valid image.
+     * @throws ImageTooLargeException If the image has more pixels than this reader accepts.
+     */
+    public List<Result> readAll(InputStream inputStreamData, DecodeProfile profile) throws IOException, NotFoundException {
+        return readAll(ImageIO.createImageInputStream(inputStreamData), profile);
+    }
+
+    /**
+     * Reads every barcode found in an image already held in memory, like {@link #readAll(InputStream, DecodeProfile)}.
+     *
+     * @param image The bytes of the barcode image.
+     * @param profile The {@link DecodeProfile} selecting the decoding hints.
+     * @return The decoded barcodes, with result points in image coordinates; never empty.
+     * @throws IOException If an I/O error occurs while decoding the image.
+     * @throws NotFoundException If no barcode can be found or decoded from the image.
+     * @throws IllegalArgumentException If the array does not contain a valid image.
+     * @throws ImageTooLargeException If the image has more pixels than this reader accepts.
+     */
+    public List<Result> readAll(byte[] image, DecodeProfile profile) throws IOException, NotFoundException {
+        return readAll(new ByteArrayImageInputStream(image), profile);
+    }
+
+    private List<Result> readAll(ImageInputStream imageInputStream, DecodeProfile profile) throws IOException, NotFoundException {
+        return withImageReader(imageInputStream, (imageReader, param, gray) ->
+                decodeImage(imageReader.read(0, param), gray, bitmap -> decodeMultiple(bitmap, profile)));
+    }
+
+    /**
+     * Reads the barcodes on every page of a multi-page image, such as a TIFF from a document scanner or an animated
+     * GIF, for formats with a single image only its one page. Pages are read one after another, as the number of
+     * pages is only known once the whole file was scanned, and decoded in parallel on the tile executor with a
+     * bounded number of pages held in memory at once. Each page is decoded like {@link #readAll}. Every page is
+     * checked against the pixel limit before it is decoded, and the image is rejected as soon as it has more pages,
+     * or more pixels on all pages together, than this reader accepts.
+     * <p>
+     * Once {@code maxSymbols} barcodes have been found, no further pages are read and pages still being decoded are
+     * abandoned, so the result may skip pages. GIF frames are decoded as stored; frames holding only the changes
+     * to the previous one are not composited.
+     *
+     * @param image The bytes of the image.
+     * @param profile The {@link DecodeProfile} selecting the decoding hints.
+     * @param maxSymbols The number of barcodes after which reading stops; {@code 0} or less reads every page.
+     * @return The pages decoded, in page order, including those without a barcode; never without any barcode.
+     * @throws IOException If an I/O error occurs while decoding the image.
+     * @throws NotFoundException If no barcode is found on any page.
+     * @throws IllegalArgumentException If the array does not contain a valid image.
+     * @throws ImageTooLargeException If a page, the number of pages or their pixels together exceed this reader's limits.
+     */
+    public List<PageResult> readPages(byte[] image, DecodeProfile profile, int maxSymbols) throws IOException, NotFoundException {
+        return withImageReader(new ByteArrayImageInputStream(image), (imageReader, param, gray) ->
+                readPages(imageReader, profile, maxSymbols > 0 ? maxSymbols : Integer.MAX_VALUE));
+    }
+
+    private List<PageResult> readPages(ImageReader imageReader, DecodeProfile profile, int maxSymbols)
+            throws IOException, NotFoundException {
+        // without an executor pages are decoded right away on submission, one at a time
+        CompletionService<PageResult> decoded = new ExecutorCompletionService<>(
+                decodeExecutor != null ? decodeExecutor : Runnable::run);
+        int maxInFlight = decodeExecutor != null ? MAX_PAGES_IN_FLIGHT : 1;
+        List<Future<PageResult>> submitted = new ArrayList<>();
+        List<PageResult> pages = new ArrayList<>();
+        int symbols = 0;
+        int inFlight = 0;
+        long totalPixels = 0;
+        boolean more = true;
+
+        try {
+            while (symbols < maxSymbols && (more || inFlight > 0)) {
+                while (more && inFlight < maxInFlight) {
+                    int index = submitted.size();
+                    if (!hasPage(imageReader, index)) {
+                        more = false;
+                    } else if (index >= maxPages) {
+                        throw new ImageTooLargeException("Image has more than " + maxPages + " pages.");
+                    } else {
+                        totalPixels += checkSize(imageReader, index);
+                        if (totalPixels > maxTotalPixels) {
+                            throw new ImageTooLargeException("Pages of the image exceed the limit of " + maxTotalPixels
+                                    + " pixels in total.");
+                        }
+                        ImageReadParam pageParam = imageReader.getDefaultReadParam();
+                        ImageTypeSpecifier grayType = grayImageType(imageReader, index);
+                        if (grayType != null) {
+                            pageParam.setDestinationType(grayType);
+                        }
+                        // the reader is not thread-safe, so pages are read here and only decoded in parallel
+                        BufferedImage page = imageReader.read(index, pageParam);
+                        boolean gray = grayType != null;
+                        submitted.add(decoded.submit(() -> new PageResult(index, decodePage(page, gray, profile))));
+                        inFlight++;
+                    }
+                }
+                if (inFlight > 0) {
+                    PageResult page = decoded.take().get();
+                    inFlight--;
+                    pages.add(page);
+                    symbols += page.results().size();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Reading the pages was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            submitted.forEach(future -> future.cancel(false));
+        }
+
+        if (symbols == 0) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+        pages.sort(Comparator.comparingInt(PageResult::page));
+        return pages;
+    }
+
+    private List<Result> decodePage(BufferedImage page, boolean gray, DecodeProfile profile) {
+        try {
+            return decodeImage(page, gray, bitmap -> decodeMultiple(bitmap, profile));
+        } catch (NotFoundException e) {
+            return List.of();
+        }
+    }
 
-        if (bufferedImage == null) {
-            throw new IllegalArgumentException("invalid image.");
+    /**
+     * Returns whether the image has a page with the given index. Formats like TIFF and GIF only know their number of
+     * pages after scanning the whole file, so this asks for the page itself rather than the count.
+     */
+    private static boolean hasPage(ImageReader imageReader, int index) throws IOException {
+        try {
+            imageReader.getWidth(index);
+            return true;
+        } catch (IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    private static List<Result> decodeMultiple(BinaryBitmap bitmap, DecodeProfile profile) throws NotFoundException {
+        Map<String, Result> found = new LinkedHashMap<>();
+        Collection<?> formats = (Collection<?>) profile.getHints().get(DecodeHintType.POSSIBLE_FORMATS);
+        if (formats == null || formats.contains(BarcodeFormat.QR_CODE)) {
+            collect(found, new QRCodeMultiReader(), bitmap, profile.getHints());
+        }
+        if (formats == null || !formats.equals(List.of(BarcodeFormat.QR_CODE))) {
+            MultiFormatReader reader = profile.reader();
+            Reader stateful = new Reader() {
+                @Override
+                public Result decode(BinaryBitmap image) throws NotFoundException {
+                    return reader.decodeWithState(image);
+                }
+
+                @Override
+                public Result decode(BinaryBitmap image, Map<DecodeHintType, ?> hints) throws NotFoundException {
+                    return reader.decodeWithState(image);
+                }
+
+                @Override
+                public void reset() {
+                    reader.reset();
+                }
+            };
+            collect(found, new GenericMultipleBarcodeReader(stateful), bitmap, profile.getHints());
+        }
+        if (found.isEmpty()) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private static void collect(Map<String, Result> found, MultipleBarcodeReader reader, BinaryBitmap bitmap,
+                                Map<DecodeHintType, ?> hints) {
+        try {
+            for (Result result : reader.decodeMultiple(bitmap, hints)) {
+                found.putIfAbsent(result.getBarcodeFormat() + ":" + result.getText(), result);
+            }
+        } catch (NotFoundException e) {
+            // nothing of this kind in the image
+        }
+    }
+
+    private Result readStaged(ImageInputStream imageInputStream, ResultDecoder decoder) throws IOException, NotFoundException {
+        return withImageReader(imageInputStream, (imageReader, param, gray) -> {
+            long pixels = (long) imageReader.getWidth(0) * imageReader.getHeight(0);
+            int subsampling = subsampling(pixels);
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                try {
+                    return scale(decodeImage(imageReader.read(0, param), gray,
+                            bitmap -> decoder.decode(bitmap, DecodeStrategy.HYBRID)), subsampling);
+                } catch (NotFoundException e) {
+                    // the barcode is too small for the reduced image, escalate to full resolution
+                    param.setSourceSubsampling(1, 1, 0, 0);
+                }
+            }
+
+            BufferedImage image = imageReader.read(0, param);
+            byte[] buffer = gray ? null : BUFFERS.acquire(image.getWidth() * image.getHeight());
+            boolean pooled = buffer != null;
+            try {
+                LuminanceSource luminanceSource = RasterLuminanceSource.of(image, buffer);
+                if (decodeExecutor != null && pixels >= TILE_ABOVE_PIXELS) {
+                    // tiles may still be decoded after a result is returned, so the buffer is left to them
+                    pooled = false;
+                    try {
+                        return decodeTiles(luminanceSource, decoder);
+                    } catch (NotFoundException e) {
+                        // a barcode larger than the overlap may straddle a tile boundary, try the full frame
+                    }
+                }
+                try {
+                    return decoder.decode(new BinaryBitmap(new HybridBinarizer(luminanceSource)), DecodeStrategy.HYBRID);
+                } catch (NotFoundException e) {
+                    if (strategies.isEmpty()) {
+                        throw e;
+                    }
+                }
+                pooled &= decodeExecutor == null;
+                return decodeStrategies(luminanceSource, decoder);
+            } finally {
+                if (pooled) {
+                    BUFFERS.release(buffer);
+                }
+            }
+        });
+    }
+
+    private <T> T withImageReader(ImageInputStream input, ImageDecoder<T> imageDecoder) throws IOException, NotFoundException {
+        // null if no stream could be created for the input
+        try (ImageInputStream imageInputStream = input) {
+            Iterator<ImageReader> readers = imageInputStream == null ? null : ImageIO.getImageReaders(imageInputStream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("invalid image.");
+            }
+
+            ImageReader imageReader = readers.next();
+            try {
+                // not seek-forward-only, so the image can be decoded again at a higher resolution
+                imageReader.setInput(imageInputStream, false, true);
+                checkSize(imageReader, 0);
+                ImageReadParam param = imageReader.getDefaultReadParam();
+                ImageTypeSpecifier grayType = grayImageType(imageReader, 0);
+                if (grayType != null) {
+                    param.setDestinationType(grayType);
+                }
+                return imageDecoder.decode(imageReader, param, grayType != null);
+            } finally {
+                imageReader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Rejects images above {@link #maxPixels} from their header alone, before a raster is allocated. A few hundred
+     * bytes of PNG can announce a 20000x20000 image.
+     *
+     * @return the pixels of the image
+     */
+    private long checkSize(ImageReader imageReader, int imageIndex) throws IOException {
+        int width = imageReader.getWidth(imageIndex);
+        int height = imageReader.getHeight(imageIndex);
+        if ((long) width * height > maxPixels) {
+            throw new ImageTooLargeException("Image of " + width + "x" + height + " pixels exceeds the limit of "
+                    + maxPixels + " pixels.");
+        }
+        return (long) width * height;
+    }
+
+    private <T> T decodeImage(BufferedImage image, boolean gray, Decoder<T> decoder) throws NotFoundException {
+        byte[] buffer = gray ? null : BUFFERS.acquire(image.getWidth() * image.getHeight());
+        try {
+            LuminanceSource luminanceSource = RasterLuminanceSource.of(image, buffer);
+            return decoder.decode(new BinaryBitmap(new HybridBinarizer(luminanceSource)));
+        } finally {
+            BUFFERS.release(buffer);
+        }
+    }
+
+    /**
+     * Decodes overlapping tiles of the image in parallel on {@link #decodeExecutor} and returns the first result
+     * found, with its result points in image coordinates.
+     */
+    private Result decodeTiles(LuminanceSource source, ResultDecoder decoder) throws IOException, NotFoundException {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int columns = Math.ceilDiv(width, TILE_SIZE);
+        int rows = Math.ceilDiv(height, TILE_SIZE);
+        int tileWidth = Math.ceilDiv(width, columns);
+        int tileHeight = Math.ceilDiv(height, rows);
+
+        List<Callable<Result>> tiles = new ArrayList<>(columns * rows);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int left = Math.max(0, column * tileWidth - TILE_OVERLAP);
+                int top = Math.max(0, row * tileHeight - TILE_OVERLAP);
+                int right = Math.min(width, (column + 1) * tileWidth + TILE_OVERLAP);
+                int bottom = Math.min(height, (row + 1) * tileHeight + TILE_OVERLAP);
+                LuminanceSource tile = source.crop(left, top, right - left, bottom - top);
+                tiles.add(() -> translate(decoder.decode(new BinaryBitmap(new HybridBinarizer(tile)), DecodeStrategy.HYBRID), left, top));
+            }
         }
+        return firstSuccess(tiles, Long.MAX_VALUE, tiles.size());
+    }
 
-        LuminanceSource luminanceSource = new BufferedImageLuminanceSource(bufferedImage);
-        BinaryBitmap binaryBitmap = new BinaryBitmap(new HybridBinarizer(luminanceSource));
+    /**
+     * Runs the fallback strategies on the full resolution image, {@link #MAX_STRATEGIES_IN_FLIGHT} at a time, and
+     * returns the first result found within the strategy budget. Without an executor, the strategies are tried one
+     * after another until the budget is spent. If the budget runs out before every strategy failed, a
+     * {@link DecodeTimeoutException} is thrown rather than a {@link NotFoundException}, as the image may still hold a
+     * barcode.
+     */
+    private Result decodeStrategies(LuminanceSource source, ResultDecoder decoder) throws IOException, NotFoundException {
+        List<Callable<Result>> attempts = new ArrayList<>(strategies.size());
+        for (DecodeStrategy strategy : strategies) {
+            attempts.add(() -> strategy.toSource(decoder.decode(new BinaryBitmap(strategy.binarizer(source)), strategy), source));
+        }
+        if (decodeExecutor != null) {
+            return firstSuccess(attempts, strategyBudget.toNanos(), MAX_STRATEGIES_IN_FLIGHT);
+        }
+        long deadline = System.nanoTime() + strategyBudget.toNanos();
+        for (Callable<Result> attempt : attempts) {
+            if (System.nanoTime() - deadline >= 0) {
+                throw strategyTimeout();
+            }
+            try {
+                return attempt.call();
+            } catch (Exception e) {
+                // try the next strategy
+            }
+        }
+        throw NotFoundException.getNotFoundInstance();
+    }
+
+    /**
+     * Runs the attempts on {@link #decodeExecutor} in {@code maxInFlight} slots and returns the first result. Each
+     * slot is one task that takes the next attempt whenever its previous one failed, and stops once a result was
+     * found or the timeout has passed, so the attempts of one call never occupy more than {@code maxInFlight}
+     * threads. Running attempts cannot be interrupted inside ZXing, so an attempt started just before the deadline
+     * finishes in the background and its result is discarded; the overrun is bounded by one attempt per slot.
+     *
+     * @throws NotFoundException      if every attempt failed
+     * @throws DecodeTimeoutException if the timeout passed before every attempt failed
+     * @throws InterruptedIOException if the calling thread was interrupted while waiting
+     */
+    private Result firstSuccess(List<Callable<Result>> attempts, long timeoutNanos, int maxInFlight)
+            throws IOException, NotFoundException {
+        long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        CompletableFuture<Result> first = new CompletableFuture<>();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        for (int slot = 0; slot < Math.min(maxInFlight, attempts.size()); slot++) {
+            decodeExecutor.execute(() -> runSlot(attempts, next, failures, first, deadline));
+        }
+        try {
+            return timeoutNanos == Long.MAX_VALUE ? first.get() : first.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw strategyTimeout();
+        } catch (ExecutionException e) {
+            throw NotFoundException.getNotFoundInstance();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Decoding was interrupted.");
+        } finally {
+            // slots see this and take no further attempt
+            first.cancel(false);
+        }
+    }
+
+    /**
+     * Runs attempts one after another until one succeeds, none is left, another slot found a result or the
+     * deadline has passed. The slot that sees the last attempt fail completes {@code first} exceptionally.
+     */
+    private static void runSlot(List<Callable<Result>> attempts, AtomicInteger next, AtomicInteger failures,
+                                CompletableFuture<Result> first, long deadline) {
+        int index;
+        while (!first.isDone() && (index = next.getAndIncrement()) < attempts.size()) {
+            if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+                return;
+            }
+            try {
+                first.complete(attempts.get(index).call());
+                return;
+            } catch (Exception e) {
+                if (failures.incrementAndGet() == attempts.size()) {
+                    first.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private DecodeTimeoutException strategyTimeout() {
+        return new DecodeTimeoutException("No barcode found within the strategy budget of "
+                + strategyBudget.toMillis() + " ms.");
+    }
+
+    /**
+     * Returns the source subsampling factor for the first, reduced resolution attempt; {@code 1} if the image is
+     * small enough to be decoded at full resolution straight away.
+     */
+    static int subsampling(long pixels) {
+        if (pixels <= SUBSAMPLE_ABOVE_PIXELS) {
+            return 1;
+        }
+        return (int) Math.ceil(Math.sqrt((double) pixels / SUBSAMPLED_PIXELS));
+    }
+
+    private static Result scale(Result result, int factor) {
+        return transform(result, factor, 0, 0);
+    }
+
+    private static Result translate(Result result, int dx, int dy) {
+        return transform(result, 1, dx, dy);
+    }
+
+    /**
+     * Maps the result points of a result decoded from a reduced or cropped image back to the source image.
+     */
+    private static Result transform(Result result, int factor, int dx, int dy) {
+        ResultPoint[] points = result.getResultPoints();
+        if (points == null || (factor == 1 && dx == 0 && dy == 0)) {
+            return result;
+        }
+        ResultPoint[] mapped = new ResultPoint[points.length];
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] != null) {
+                mapped[i] = new ResultPoint(points[i].getX() * factor + dx, points[i].getY() * factor + dy);
+            }
+        }
+        Result transformed = new Result(result.getText(), result.getRawBytes(), result.getNumBits(), mapped,
+                result.getBarcodeFormat(), result.getTimestamp());
+        transformed.putAllMetadata(result.getResultMetadata());
+        return transformed;
+    }
+
+    /**
+     * Returns the 8-bit grayscale destination type offered by the reader, if any. The JPEG reader offers one for
+     * YCbCr images and then decodes only the Y channel, skipping colour conversion and two thirds of the raster.
+     */
+    private static ImageTypeSpecifier grayImageType(ImageReader imageReader, int imageIndex) throws IOException {
+        for (Iterator<ImageTypeSpecifier> types = imageReader.getImageTypes(imageIndex); types.hasNext(); ) {
+            ImageTypeSpecifier type = types.next();
+            if (type.getBufferedImageType() == BufferedImage.TYPE_BYTE_GRAY) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(BinaryBitmap bitmap) throws NotFoundException;
+    }
+
+    @FunctionalInterface
+    private interface ResultDecoder {
+        Result decode(BinaryBitmap bitmap, DecodeStrategy strategy) throws NotFoundException;
+    }
 
-        return new MultiFormatReader().decode(binaryBitmap, hints);
+    @FunctionalInterface
+    private interface ImageDecoder<T> {
+        T decode(ImageReader imageReader, ImageReadParam param, boolean gray) throws IOException, NotFoundException;
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,63 @@
 package com.root14.barcodeservice.core;
 
 import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents the result of a successfully decoded barcode.
  * <p>
  * This record encapsulates the key details extracted from the barcode,
- * including the timestamp of decoding, the textual content, and the barcode format.
+ * including the timestamp of decoding, the textual content, the barcode format
+ * and where the barcode was found in the image.
  *
  * @param timestamp The time (in milliseconds) when the barcode was decoded.
  * @param text The decoded text contained in the barcode.
  * @param barcodeFormat The format/type of the barcode (e.g., QR_CODE, CODE_128).
+ * @param resultPoints The points locating the barcode in the image, in pixels (e.g., the finder patterns of a QR code
+ *                     or the ends of a linear barcode). Empty if the reader reported none.
  */
-public record BarcodeResult(long timestamp, String text, BarcodeFormat barcodeFormat) {
-}
\ No newline at end of file
+public record BarcodeResult(long timestamp, String text, BarcodeFormat barcodeFormat, List<Point> resultPoints) {
+
+    /**
+     * A location in the decoded image, in pixels from the top left corner.
+     *
+     * @param x The horizontal position.
+     * @param y The vertical position.
+     */
+    public record Point(float x, float y) {
+    }
+
+    /**
+     * Creates a barcode result without location data.
+     *
+     * @param timestamp The time (in milliseconds) when the barcode was decoded.
+     * @param text The decoded text contained in the barcode.
+     * @param barcodeFormat The format/type of the barcode.
+     */
+    public BarcodeResult(long timestamp, String text, BarcodeFormat barcodeFormat) {
+        this(timestamp, text, barcodeFormat, List.of());
+    }
+
+    /**
+     * Converts a ZXing {@link Result}, including its result points.
+     *
+     * @param result the decoded result
+     * @return the barcode result
+     */
+    public static BarcodeResult of(Result result) {
+        List<Point> points = new ArrayList<>();
+        if (result.getResultPoints() != null) {
+            for (ResultPoint point : result.getResultPoints()) {
+                // some readers leave gaps for points they could not locate
+                if (point != null) {
+                    points.add(new Point(point.getX(), point.getY()));
+                }
+            }
+        }
+        return new BarcodeResult(result.getTimestamp(), result.getText(), result.getBarcodeFormat(), List.copyOf(points));
+    }
+}
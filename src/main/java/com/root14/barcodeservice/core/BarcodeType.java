@@ -8,7 +8,9 @@ import com.google.zxing.oned.*;
 import com.google.zxing.pdf417.PDF417Writer;
 import com.google.zxing.qrcode.QRCodeWriter;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * An enumeration representing different types of barcodes supported by the service.
@@ -30,7 +32,7 @@ public enum BarcodeType {
     /** Code 39 barcode type. */
     CODE39("code39", Code39Writer.class, BarcodeFormat.CODE_39),
     /** Code 93 barcode type. */
-    CODE93("code93", Code39Writer.class, BarcodeFormat.CODE_93), // Note: ZXing's Code93Writer extends OneDWriter directly, not Code39Writer, but the provided code uses Code39Writer.class for CODE93.
+    CODE93("code93", Code93Writer.class, BarcodeFormat.CODE_93),
     /** Code 128 barcode type. */
     CODE128("code128", Code128Writer.class, BarcodeFormat.CODE_128),
     /** Codabar barcode type. */
@@ -47,6 +49,14 @@ public enum BarcodeType {
     /** EAN-13 barcode type. */
     EAN13("ean-13", EAN13Writer.class, BarcodeFormat.EAN_13);
 
+    private static final Map<String, BarcodeType> BY_KEY = new HashMap<>();
+
+    static {
+        for (BarcodeType type : values()) {
+            BY_KEY.put(type.key.toLowerCase(Locale.ROOT), type);
+        }
+    }
+
     private final String key;
     private final Class<? extends Writer> writerClass;
     private final BarcodeFormat format;
@@ -73,10 +83,20 @@ public enum BarcodeType {
      * @throws IllegalArgumentException If no barcode type is found for the given key.
      */
     public static BarcodeType fromKey(String key) {
-        return Arrays.stream(values())
-                .filter(bt -> bt.key.equalsIgnoreCase(key))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Unknown barcode type: " + key));
+        BarcodeType type = key == null ? null : BY_KEY.get(key.toLowerCase(Locale.ROOT));
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown barcode type: " + key);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the key clients use to select this barcode type.
+     *
+     * @return The key (e.g., "qr", "dataMatrix").
+     */
+    public String getKey() {
+        return key;
     }
 
     /**
@@ -0,0 +1,50 @@
+package com.root14.barcodeservice.core;
+
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * An {@link ImageInputStream} reading straight from a byte array.
+ * <p>
+ * {@link javax.imageio.ImageIO#createImageInputStream} wraps an {@link java.io.InputStream} in a stream that copies
+ * everything it reads into a cache of its own, so decoding an image that is already in memory would hold it twice.
+ * This stream seeks within the array instead and copies nothing.
+ */
+final class ByteArrayImageInputStream extends ImageInputStreamImpl {
+    private final byte[] data;
+    private final int length;
+
+    ByteArrayImageInputStream(byte[] data) {
+        this.data = data;
+        this.length = data.length;
+    }
+
+    @Override
+    public int read() {
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return data[(int) streamPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= length) {
+            return -1;
+        }
+        int count = (int) Math.min(len, length - streamPos);
+        System.arraycopy(data, (int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+}
@@ -0,0 +1,111 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named, pre-validated sets of decoding hints selectable by clients.
+ * <p>
+ * Each profile is compiled once into a {@link MultiFormatReader} configuration. Readers are kept per thread and
+ * reused through {@link MultiFormatReader#decodeWithState}, so the reader list is not rebuilt for every request.
+ * Restricting the possible formats also makes decoding cheaper, as fewer readers are tried on each image.
+ */
+public enum DecodeProfile {
+    /** All supported formats with the ZXing defaults. */
+    DEFAULT("default", Map.of()),
+    /** Retail and logistics linear barcodes. */
+    RETAIL_1D("retail-1d", Map.of(DecodeHintType.POSSIBLE_FORMATS, List.of(
+            BarcodeFormat.EAN_13, BarcodeFormat.EAN_8, BarcodeFormat.UPC_A, BarcodeFormat.UPC_E,
+            BarcodeFormat.CODE_128, BarcodeFormat.CODE_39, BarcodeFormat.ITF))),
+    /** QR codes only. */
+    QR_ONLY("qr-only", Map.of(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE))),
+    /** All supported formats, spending more time to find hard to read barcodes. */
+    TRY_HARDER("try-harder", Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE));
+
+    private static final Map<String, DecodeProfile> BY_KEY = new HashMap<>();
+
+    static {
+        for (DecodeProfile profile : values()) {
+            BY_KEY.put(profile.key, profile);
+        }
+    }
+
+    private final String key;
+    private final Map<DecodeHintType, Object> hints;
+    private final ThreadLocal<MultiFormatReader> readers;
+    // readers for strategies that add hints, created on first use
+    private final ThreadLocal<Map<DecodeStrategy, MultiFormatReader>> strategyReaders =
+            ThreadLocal.withInitial(() -> new EnumMap<>(DecodeStrategy.class));
+
+    DecodeProfile(String key, Map<DecodeHintType, Object> hints) {
+        this.key = key;
+        this.hints = hints;
+        this.readers = ThreadLocal.withInitial(() -> newReader(hints));
+    }
+
+    private static MultiFormatReader newReader(Map<DecodeHintType, Object> hints) {
+        MultiFormatReader reader = new MultiFormatReader();
+        reader.setHints(hints);
+        return reader;
+    }
+
+    /**
+     * Returns the profile with the given key.
+     *
+     * @param key the profile key (e.g., "qr-only"); case-insensitive
+     * @return the matching profile
+     * @throws IllegalArgumentException if no profile has the given key
+     */
+    public static DecodeProfile fromKey(String key) {
+        DecodeProfile profile = key == null ? null : BY_KEY.get(key.toLowerCase(Locale.ROOT));
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown decode profile: " + key);
+        }
+        return profile;
+    }
+
+    /**
+     * @return the key clients select the profile with
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the immutable decoding hints of this profile
+     */
+    public Map<DecodeHintType, Object> getHints() {
+        return hints;
+    }
+
+    /**
+     * Returns the reader configured for this profile and confined to the calling thread.
+     * It must only be used through {@link MultiFormatReader#decodeWithState} and not be handed to other threads.
+     */
+    MultiFormatReader reader() {
+        return readers.get();
+    }
+
+    /**
+     * Returns the reader configured for this profile combined with the hints of the given strategy, confined to the
+     * calling thread like {@link #reader()}.
+     */
+    MultiFormatReader reader(DecodeStrategy strategy) {
+        if (strategy.getHints().isEmpty()) {
+            return reader();
+        }
+        return strategyReaders.get().computeIfAbsent(strategy, s -> {
+            Map<DecodeHintType, Object> combined = new EnumMap<>(DecodeHintType.class);
+            combined.putAll(hints);
+            combined.putAll(s.getHints());
+            return newReader(combined);
+        });
+    }
+}
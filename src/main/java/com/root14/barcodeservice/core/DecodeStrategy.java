@@ -0,0 +1,112 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Alternative ways of decoding an image that the first attempt could not decode.
+ * <p>
+ * Each strategy varies one thing: the binarizer, the image (inverted or rotated) or the decoding hints. They replace
+ * the client retrying a read with different settings, and are run by {@link BarcodeReader} on the already decoded
+ * luminance. {@link #HYBRID} is the first attempt itself.
+ */
+public enum DecodeStrategy {
+    /** The default: {@link HybridBinarizer} on the image as it is. */
+    HYBRID("hybrid", Map.of()),
+    /** {@link GlobalHistogramBinarizer}, which does better on some evenly lit, low contrast linear barcodes. */
+    GLOBAL_HISTOGRAM("global-histogram", Map.of()),
+    /** Light barcodes on a dark background. */
+    INVERTED("inverted", Map.of()),
+    /** The image turned by 90 degrees, for linear barcodes printed vertically. */
+    ROTATED("rotated", Map.of()),
+    /** Spend more time looking for the barcode. */
+    TRY_HARDER("try-harder", Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE)),
+    /** The image is a clean, unrotated barcode with nothing around it, e.g. a rendered one. */
+    PURE_BARCODE("pure-barcode", Map.of(DecodeHintType.PURE_BARCODE, Boolean.TRUE));
+
+    private static final Map<String, DecodeStrategy> BY_KEY = new HashMap<>();
+
+    static {
+        for (DecodeStrategy strategy : values()) {
+            BY_KEY.put(strategy.key, strategy);
+        }
+    }
+
+    private final String key;
+    private final Map<DecodeHintType, Object> hints;
+
+    DecodeStrategy(String key, Map<DecodeHintType, Object> hints) {
+        this.key = key;
+        this.hints = hints;
+    }
+
+    /**
+     * Returns the strategy with the given key.
+     *
+     * @param key the strategy key (e.g., "inverted"); case-insensitive
+     * @return the matching strategy
+     * @throws IllegalArgumentException if no strategy has the given key
+     */
+    public static DecodeStrategy fromKey(String key) {
+        DecodeStrategy strategy = key == null ? null : BY_KEY.get(key.trim().toLowerCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown decode strategy: " + key);
+        }
+        return strategy;
+    }
+
+    /**
+     * @return the key the strategy is configured with
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the hints this strategy adds to those of the decode profile
+     */
+    Map<DecodeHintType, Object> getHints() {
+        return hints;
+    }
+
+    /**
+     * Returns the binarizer for the given image, inverted or rotated as this strategy requires.
+     */
+    Binarizer binarizer(LuminanceSource source) {
+        return switch (this) {
+            case GLOBAL_HISTOGRAM -> new GlobalHistogramBinarizer(source);
+            case INVERTED -> new HybridBinarizer(source.invert());
+            case ROTATED -> new HybridBinarizer(source.rotateCounterClockwise());
+            default -> new HybridBinarizer(source);
+        };
+    }
+
+    /**
+     * Maps the result points of a result decoded by this strategy back to the coordinates of the given source.
+     */
+    Result toSource(Result result, LuminanceSource source) {
+        ResultPoint[] points = result.getResultPoints();
+        if (this != ROTATED || points == null) {
+            return result;
+        }
+        ResultPoint[] mapped = new ResultPoint[points.length];
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] != null) {
+                mapped[i] = new ResultPoint(source.getWidth() - points[i].getY() - 1, points[i].getX());
+            }
+        }
+        Result rotated = new Result(result.getText(), result.getRawBytes(), result.getNumBits(), mapped,
+                result.getBarcodeFormat(), result.getTimestamp());
+        rotated.putAllMetadata(result.getResultMetadata());
+        return rotated;
+    }
+}
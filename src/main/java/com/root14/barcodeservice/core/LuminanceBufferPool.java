@@ -0,0 +1,40 @@
+package com.root14.barcodeservice.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A small, bounded pool of luminance buffers for {@link RasterLuminanceSource}.
+ * <p>
+ * At most one buffer per processor is kept, and buffers above {@link #MAX_POOLED_BYTES} are never pooled,
+ * so the pool holds on to a bounded amount of memory no matter how many request threads there are.
+ */
+final class LuminanceBufferPool {
+    // 16 megapixels covers typical phone photos
+    static final int MAX_POOLED_BYTES = 16 * 1024 * 1024;
+
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Returns a buffer of at least the given size, from the pool if one is large enough.
+     *
+     * @param size the number of bytes needed
+     * @return a buffer with undefined contents
+     */
+    byte[] acquire(int size) {
+        byte[] buffer = buffers.poll();
+        // a pooled buffer that is too small is dropped, so the pool adapts to the image sizes seen
+        return buffer != null && buffer.length >= size ? buffer : new byte[size];
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must not use it afterwards.
+     *
+     * @param buffer the buffer to return; ignored if {@code null}, too large, or the pool is full
+     */
+    void release(byte[] buffer) {
+        if (buffer != null && buffer.length <= MAX_POOLED_BYTES) {
+            buffers.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.EncodeHintType;
+
+import java.util.Map;
+
+/**
+ * Identifies the native module matrix of a barcode, independent of the size it is rendered at.
+ * <p>
+ * Every width and height variant of the same data shares one key, so the symbol only has to be
+ * encoded once. This makes the record suitable as a cache key.
+ *
+ * @param type  The key of the {@link Symbology} the symbol is encoded with, as registered.
+ * @param data  The data encoded in the barcode.
+ * @param hints The encoding hints; never null, empty for the writer defaults.
+ */
+public record MatrixKey(String type, String data, Map<EncodeHintType, Object> hints) {
+
+    /**
+     * Creates a key, copying the hints so later changes to the caller's map do not affect it.
+     *
+     * @param type  The key of the {@link Symbology} the symbol is encoded with.
+     * @param data  The data encoded in the barcode.
+     * @param hints The encoding hints (can be null for default).
+     */
+    public MatrixKey {
+        hints = hints == null ? Map.of() : Map.copyOf(hints);
+    }
+}
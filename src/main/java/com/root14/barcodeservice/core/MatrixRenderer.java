@@ -0,0 +1,48 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An interface defining the contract for turning an encoded {@link BitMatrix} into an image file.
+ * The built-in implementations are the constants of {@link OutputFormat}.
+ */
+public interface MatrixRenderer {
+    /**
+     * Returns the key clients use to select this renderer (e.g., "png", "svg").
+     *
+     * @return the lower-case format key
+     */
+    String format();
+
+    /**
+     * Returns the MIME type of the produced files.
+     *
+     * @return the content type (e.g., "image/png")
+     */
+    String contentType();
+
+    /**
+     * Returns whether this renderer scales the matrix itself.
+     * Vector renderers receive the matrix at its native module resolution; raster renderers receive it
+     * already scaled to the requested pixel size by {@link ModuleScaler}.
+     *
+     * @return {@code true} for resolution-independent output
+     */
+    boolean isVector();
+
+    /**
+     * Renders the matrix and writes the file to the given stream. The stream is not closed.
+     *
+     * @param matrix The {@link BitMatrix} to render; set bits are the dark modules.
+     * @param width  The requested width of the output.
+     * @param height The requested height of the output.
+     * @param config The {@link MatrixToImageConfig} providing the on/off colours (can be null for default).
+     * @param out    The {@link OutputStream} to write the file to.
+     * @throws IOException If writing to the stream fails.
+     */
+    void render(BitMatrix matrix, int width, int height, MatrixToImageConfig config, OutputStream out) throws IOException;
+}
@@ -0,0 +1,61 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+
+/**
+ * Walks a {@link BitMatrix} as a list of axis-aligned rectangles for vector output.
+ * <p>
+ * Horizontal runs of set modules become a single rectangle, and runs from consecutive identical
+ * rows (as in linear barcodes and PDF417 rows) are merged vertically into one taller rectangle.
+ */
+final class ModuleRuns {
+
+    /**
+     * Receives the rectangles of a matrix, in module coordinates.
+     */
+    @FunctionalInterface
+    interface RunConsumer {
+        void accept(int x, int y, int width, int height) throws IOException;
+    }
+
+    private ModuleRuns() {
+    }
+
+    /**
+     * Emits one rectangle per horizontal run of set modules, merging identical consecutive rows.
+     *
+     * @param matrix   the matrix to walk
+     * @param consumer the callback receiving the rectangles
+     * @throws IOException if the consumer fails
+     */
+    static void forEach(BitMatrix matrix, RunConsumer consumer) throws IOException {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        BitArray row = new BitArray(width);
+        BitArray next = new BitArray(width);
+
+        int y = 0;
+        while (y < height) {
+            row = matrix.getRow(y, row);
+            int rows = 1;
+            while (y + rows < height) {
+                next = matrix.getRow(y + rows, next);
+                if (!next.equals(row)) {
+                    break;
+                }
+                rows++;
+            }
+
+            int x = row.getNextSet(0);
+            while (x < width) {
+                int end = row.getNextUnset(x);
+                consumer.accept(x, y, end - x, rows);
+                x = row.getNextSet(end);
+            }
+            y += rows;
+        }
+    }
+}
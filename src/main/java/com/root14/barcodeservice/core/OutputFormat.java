@@ -0,0 +1,86 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An enumeration of the built-in output formats for generated barcodes.
+ * Each constant is a {@link MatrixRenderer} backed by one of the direct matrix writers.
+ */
+public enum OutputFormat implements MatrixRenderer {
+    /** 1-bit PNG raster image, see {@link PngMatrixWriter}. */
+    PNG("png", "image/png", false) {
+        @Override
+        public void render(BitMatrix matrix, int width, int height, MatrixToImageConfig config, OutputStream out) throws IOException {
+            PngMatrixWriter.writeToStream(matrix, config, out);
+        }
+    },
+    /** Scalable vector graphics, see {@link SvgMatrixWriter}. */
+    SVG("svg", "image/svg+xml", true) {
+        @Override
+        public void render(BitMatrix matrix, int width, int height, MatrixToImageConfig config, OutputStream out) throws IOException {
+            SvgMatrixWriter.writeToStream(matrix, width, height, config, out);
+        }
+    },
+    /** Single-page vector PDF, see {@link PdfMatrixWriter}. */
+    PDF("pdf", "application/pdf", true) {
+        @Override
+        public void render(BitMatrix matrix, int width, int height, MatrixToImageConfig config, OutputStream out) throws IOException {
+            PdfMatrixWriter.writeToStream(matrix, width, height, config, out);
+        }
+    };
+
+    private static final Map<String, OutputFormat> BY_KEY = new HashMap<>();
+
+    static {
+        for (OutputFormat outputFormat : values()) {
+            BY_KEY.put(outputFormat.format, outputFormat);
+        }
+    }
+
+    private final String format;
+    private final String contentType;
+    private final boolean vector;
+
+    OutputFormat(String format, String contentType, boolean vector) {
+        this.format = format;
+        this.contentType = contentType;
+        this.vector = vector;
+    }
+
+    /**
+     * Returns the output format for the given key. The comparison is case-insensitive.
+     *
+     * @param format The format key to look up (e.g., "png", "svg").
+     * @return The {@link OutputFormat} enum constant.
+     * @throws IllegalArgumentException If no output format is found for the given key.
+     */
+    public static OutputFormat fromKey(String format) {
+        OutputFormat outputFormat = format == null ? null : BY_KEY.get(format.toLowerCase(Locale.ROOT));
+        if (outputFormat == null) {
+            throw new IllegalArgumentException("Unknown output format: " + format);
+        }
+        return outputFormat;
+    }
+
+    @Override
+    public String format() {
+        return format;
+    }
+
+    @Override
+    public String contentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isVector() {
+        return vector;
+    }
+}
@@ -0,0 +1,14 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.Result;
+
+import java.util.List;
+
+/**
+ * The barcodes found on one page of a multi-page image, e.g. a scanned TIFF, or one frame of an animated GIF.
+ *
+ * @param page    the zero-based index of the page in the image
+ * @param results the barcodes decoded on the page, with result points in page coordinates; empty if none was found
+ */
+public record PageResult(int page, List<Result> results) {
+}
@@ -0,0 +1,138 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Renders a {@link BitMatrix} as a minimal single-page PDF document.
+ *
+ * <p>The page is {@code width} x {@code height} points and contains one compressed content stream that fills
+ * the merged module runs (see {@link ModuleRuns}) as rectangles, so the barcode is pure vector graphics.
+ * Like {@link SvgMatrixWriter}, the matrix is expected at native module resolution; linear barcodes are
+ * stretched to the page height and 2D symbols keep their aspect ratio and are centred. Colour alpha is ignored.</p>
+ */
+public final class PdfMatrixWriter {
+    private static final MatrixToImageConfig DEFAULT_CONFIG = new MatrixToImageConfig();
+
+    private PdfMatrixWriter() {
+    }
+
+    /**
+     * Renders the matrix as PDF and writes it to the given stream. The stream is not closed.
+     *
+     * @param matrix The {@link BitMatrix} to render, at native module resolution.
+     * @param width  The width of the page in points.
+     * @param height The height of the page in points.
+     * @param config The {@link MatrixToImageConfig} providing the on/off colours (can be null for default).
+     * @param out    The {@link OutputStream} to write the document to.
+     * @throws IOException If writing to the stream fails.
+     */
+    public static void writeToStream(BitMatrix matrix, int width, int height, MatrixToImageConfig config, OutputStream out) throws IOException {
+        if (config == null) {
+            config = DEFAULT_CONFIG;
+        }
+        byte[] content = contentStream(matrix, width, height, config);
+
+        PdfOutput pdf = new PdfOutput(out);
+        pdf.write("%PDF-1.4\n%âãÏÓ\n");
+        pdf.object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+        pdf.object(2, "<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+        pdf.object(3, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + width + " " + height + "] /Contents 4 0 R /Resources << >> >>");
+        pdf.beginObject(4);
+        pdf.write("<< /Length " + content.length + " /Filter /FlateDecode >>\nstream\n");
+        pdf.write(content);
+        pdf.write("\nendstream\nendobj\n");
+        pdf.finish(1);
+    }
+
+    private static byte[] contentStream(BitMatrix matrix, int width, int height, MatrixToImageConfig config) throws IOException {
+        int columns = matrix.getWidth();
+        int rows = matrix.getHeight();
+        double scaleX = (double) width / columns;
+        double scaleY = (double) height / rows;
+        double offsetX = 0;
+        double offsetY = 0;
+        if (rows > 1) {
+            double scale = Math.min(scaleX, scaleY);
+            offsetX = (width - columns * scale) / 2;
+            offsetY = (height - rows * scale) / 2;
+            scaleX = scale;
+            scaleY = scale;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+            StringBuilder ops = new StringBuilder(4096);
+            ops.append(rgb(config.getPixelOffColor())).append(" rg 0 0 ").append(width).append(' ').append(height).append(" re f\n");
+            // flip the y axis so module rows run top to bottom, and scale modules to points
+            ops.append(String.format(Locale.ROOT, "%.4f 0 0 %.4f %.4f %.4f cm\n", scaleX, -scaleY, offsetX, height - offsetY));
+            ops.append(rgb(config.getPixelOnColor())).append(" rg\n");
+
+            ModuleRuns.forEach(matrix, (x, y, w, h) -> {
+                ops.append(x).append(' ').append(y).append(' ').append(w).append(' ').append(h).append(" re\n");
+                if (ops.length() > 4000) {
+                    deflater.write(ops.toString().getBytes(StandardCharsets.US_ASCII));
+                    ops.setLength(0);
+                }
+            });
+            ops.append("f\n");
+            deflater.write(ops.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String rgb(int argb) {
+        return String.format(Locale.ROOT, "%.3f %.3f %.3f",
+                ((argb >> 16) & 0xFF) / 255.0, ((argb >> 8) & 0xFF) / 255.0, (argb & 0xFF) / 255.0);
+    }
+
+    /**
+     * Tracks byte offsets of the written objects for the cross-reference table.
+     */
+    private static final class PdfOutput {
+        private final OutputStream out;
+        private final long[] offsets = new long[5];
+        private long position;
+
+        PdfOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(String text) throws IOException {
+            write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        void beginObject(int number) throws IOException {
+            offsets[number] = position;
+            write(number + " 0 obj\n");
+        }
+
+        void object(int number, String dictionary) throws IOException {
+            beginObject(number);
+            write(dictionary + "\nendobj\n");
+        }
+
+        void finish(int root) throws IOException {
+            long xref = position;
+            StringBuilder table = new StringBuilder("xref\n0 ").append(offsets.length).append("\n0000000000 65535 f \n");
+            for (int i = 1; i < offsets.length; i++) {
+                table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets[i]));
+            }
+            table.append("trailer\n<< /Size ").append(offsets.length).append(" /Root ").append(root).append(" 0 R >>\n")
+                    .append("startxref\n").append(xref).append("\n%%EOF\n");
+            write(table.toString());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes a {@link BitMatrix} straight into a 1-bit indexed PNG.
+ *
+ * <p>Unlike {@code MatrixToImageWriter.toBufferedImage} followed by {@code ImageIO.write}, no
+ * {@code BufferedImage} is ever created: each matrix row is packed into one bit per pixel and fed
+ * to the deflater directly. The on and off colours of a {@link MatrixToImageConfig} become the two
+ * palette entries, and a {@code tRNS} chunk is written when either colour is not fully opaque.</p>
+ *
+ * <p>This class is stateless apart from a per-thread {@link Deflater}, so it can be used
+ * concurrently without synchronisation.</p>
+ */
+public final class PngMatrixWriter {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int BIT_DEPTH = 1;
+    private static final int COLOR_TYPE_INDEXED = 3;
+    private static final int FILTER_NONE = 0;
+    private static final int IDAT_CHUNK_SIZE = 32 * 1024;
+
+    // Barcode rows repeat a lot, so the fastest level already compresses well.
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private static final MatrixToImageConfig DEFAULT_CONFIG = new MatrixToImageConfig();
+
+    private PngMatrixWriter() {
+    }
+
+    /**
+     * Encodes the given matrix as a PNG using black modules on a white background.
+     *
+     * @param matrix The {@link BitMatrix} to encode.
+     * @return The PNG file as a byte array.
+     */
+    public static byte[] toByteArray(BitMatrix matrix) {
+        return toByteArray(matrix, DEFAULT_CONFIG);
+    }
+
+    /**
+     * Encodes the given matrix as a PNG using the colours of the given configuration.
+     *
+     * @param matrix The {@link BitMatrix} to encode.
+     * @param config The {@link MatrixToImageConfig} whose on/off colours form the palette (can be null for default).
+     * @return The PNG file as a byte array.
+     */
+    public static byte[] toByteArray(BitMatrix matrix, MatrixToImageConfig config) {
+        // rough upper bound for a typical 1-bit barcode, avoids most resizing
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + matrix.getRowSize() * 4 * matrix.getHeight() / 16);
+        try {
+            writeToStream(matrix, config, out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes the given matrix as a PNG and writes it to the given stream. The stream is not closed.
+     *
+     * @param matrix The {@link BitMatrix} to encode.
+     * @param config The {@link MatrixToImageConfig} whose on/off colours form the palette (can be null for default).
+     * @param out    The {@link OutputStream} to write the PNG file to.
+     * @throws IOException If writing to the stream fails.
+     */
+    public static void writeToStream(BitMatrix matrix, MatrixToImageConfig config, OutputStream out) throws IOException {
+        if (config == null) {
+            config = DEFAULT_CONFIG;
+        }
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+
+        out.write(SIGNATURE);
+        ChunkWriter chunks = new ChunkWriter(out);
+
+        DataOutputStream ihdr = chunks.begin("IHDR");
+        ihdr.writeInt(width);
+        ihdr.writeInt(height);
+        ihdr.writeByte(BIT_DEPTH);
+        ihdr.writeByte(COLOR_TYPE_INDEXED);
+        ihdr.writeByte(0); // compression: deflate
+        ihdr.writeByte(0); // filter method: adaptive
+        ihdr.writeByte(0); // interlace: none
+        chunks.end();
+
+        // palette index 0 = off (background), index 1 = on (module)
+        int off = config.getPixelOffColor();
+        int on = config.getPixelOnColor();
+        DataOutputStream plte = chunks.begin("PLTE");
+        writeRgb(plte, off);
+        writeRgb(plte, on);
+        chunks.end();
+
+        if ((off >>> 24) != 0xFF || (on >>> 24) != 0xFF) {
+            DataOutputStream trns = chunks.begin("tRNS");
+            trns.writeByte(off >>> 24);
+            trns.writeByte(on >>> 24);
+            chunks.end();
+        }
+
+        writeImageData(matrix, width, height, chunks);
+
+        chunks.begin("IEND");
+        chunks.end();
+    }
+
+    private static void writeImageData(BitMatrix matrix, int width, int height, ChunkWriter chunks) throws IOException {
+        int stride = (width + 7) / 8;
+        byte[] scanline = new byte[stride + 1];
+        scanline[0] = FILTER_NONE;
+        byte[] compressed = new byte[IDAT_CHUNK_SIZE];
+        BitArray row = new BitArray(width);
+
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        try {
+            for (int y = 0; y < height; y++) {
+                row = matrix.getRow(y, row);
+                packRow(row.getBitArray(), scanline, stride);
+                deflater.setInput(scanline);
+                while (!deflater.needsInput()) {
+                    int n = deflater.deflate(compressed);
+                    if (n > 0) {
+                        chunks.writeChunk("IDAT", compressed, n);
+                    }
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(compressed);
+                if (n > 0) {
+                    chunks.writeChunk("IDAT", compressed, n);
+                }
+            }
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * Packs one BitMatrix row (least significant bit first within each int) into PNG order
+     * (most significant bit first within each byte), starting at offset 1 after the filter byte.
+     */
+    private static void packRow(int[] bits, byte[] scanline, int stride) {
+        for (int i = 0; i < stride; i++) {
+            int word = bits[i >>> 2];
+            int b = (word >>> ((i & 3) << 3)) & 0xFF;
+            scanline[i + 1] = (byte) (Integer.reverse(b) >>> 24);
+        }
+    }
+
+    private static void writeRgb(DataOutputStream out, int argb) throws IOException {
+        out.writeByte(argb >>> 16);
+        out.writeByte(argb >>> 8);
+        out.writeByte(argb);
+    }
+
+    /**
+     * Writes length-prefixed, CRC-suffixed PNG chunks to the underlying stream.
+     */
+    private static final class ChunkWriter {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        private final DataOutputStream data = new DataOutputStream(buffer);
+        private final CRC32 crc = new CRC32();
+        private byte[] type;
+
+        ChunkWriter(OutputStream out) {
+            this.out = new DataOutputStream(out);
+        }
+
+        DataOutputStream begin(String chunkType) {
+            type = chunkType.getBytes(StandardCharsets.US_ASCII);
+            buffer.reset();
+            return data;
+        }
+
+        void end() throws IOException {
+            writeChunk(type, buffer.toByteArray(), buffer.size());
+        }
+
+        void writeChunk(String chunkType, byte[] payload, int length) throws IOException {
+            writeChunk(chunkType.getBytes(StandardCharsets.US_ASCII), payload, length);
+        }
+
+        private void writeChunk(byte[] chunkType, byte[] payload, int length) throws IOException {
+            crc.reset();
+            crc.update(chunkType);
+            crc.update(payload, 0, length);
+            out.writeInt(length);
+            out.write(chunkType);
+            out.write(payload, 0, length);
+            out.writeInt((int) crc.getValue());
+        }
+    }
+}
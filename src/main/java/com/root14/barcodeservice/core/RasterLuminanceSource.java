@@ -0,0 +1,291 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.LuminanceSource;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+
+/**
+ * A {@link LuminanceSource} that reads luminance straight from the {@link Raster} of a decoded image.
+ *
+ * <p>{@code BufferedImageLuminanceSource} converts every pixel through {@code getRGB} into an ARGB {@code int},
+ * draws the result into a second, grayscale image, and copies that again on every {@link #getMatrix()} call.
+ * This class computes one luminance byte per pixel directly from the raster data instead:</p>
+ * <ul>
+ *   <li>single-band byte rasters (grayscale images and the Y channel of a JPEG) are used as they are, without copying;</li>
+ *   <li>palette images go through a 256-entry luminance table;</li>
+ *   <li>interleaved byte and packed {@code int} sRGB rasters are read channel by channel;</li>
+ *   <li>anything else falls back to {@code getRGB}, one row at a time.</li>
+ * </ul>
+ *
+ * <p>Luminance is computed with the same integer formula as ZXing, and fully transparent pixels count as white,
+ * so decoding results are the same as with {@code BufferedImageLuminanceSource}. Converted luminance is written
+ * into a caller-supplied buffer, which lets callers pool it; {@link #getMatrix()} returns that buffer without
+ * copying, so it may be longer than {@code width * height}.</p>
+ */
+public final class RasterLuminanceSource extends LuminanceSource {
+    private final byte[] luminances;
+    private final int dataWidth;
+    private final int dataHeight;
+    private final int left;
+    private final int top;
+
+    private RasterLuminanceSource(byte[] luminances, int dataWidth, int dataHeight, int left, int top, int width, int height) {
+        super(width, height);
+        this.luminances = luminances;
+        this.dataWidth = dataWidth;
+        this.dataHeight = dataHeight;
+        this.left = left;
+        this.top = top;
+    }
+
+    /**
+     * Creates a source for the given image.
+     *
+     * @param image  The decoded image.
+     * @param buffer A buffer of at least {@code width * height} bytes to write converted luminance into,
+     *               or {@code null} to allocate one when needed. It must not be reused while this source is in use.
+     * @return The luminance source.
+     */
+    public static RasterLuminanceSource of(BufferedImage image, byte[] buffer) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Raster raster = image.getRaster();
+        ColorModel colorModel = image.getColorModel();
+
+        if (colorModel.getColorSpace().getType() == ColorSpace.TYPE_GRAY && raster.getNumBands() == 1
+                && raster.getSampleModel().getSampleSize(0) == 8) {
+            return ofLuma(raster, buffer);
+        }
+
+        byte[] luminances = buffer(buffer, width, height);
+        if (colorModel instanceof IndexColorModel indexColorModel) {
+            fromPalette(raster, indexColorModel, luminances);
+        } else if (isInterleavedSrgb(raster, colorModel)) {
+            fromInterleavedBytes(raster, colorModel.hasAlpha(), luminances);
+        } else if (isPackedSrgb(raster, colorModel)) {
+            fromPackedInts(raster, (DirectColorModel) colorModel, luminances);
+        } else {
+            fromRgb(image, luminances);
+        }
+        return new RasterLuminanceSource(luminances, width, height, 0, 0, width, height);
+    }
+
+    /**
+     * Creates a source whose luminance is the first band of the given raster, e.g. a grayscale image or the
+     * Y channel of a YCbCr JPEG. A contiguous byte raster is wrapped without copying.
+     *
+     * @param raster The raster; only band 0 is read and must hold 8-bit samples.
+     * @param buffer A buffer of at least {@code width * height} bytes for rasters that cannot be wrapped,
+     *               or {@code null} to allocate one when needed.
+     * @return The luminance source.
+     */
+    public static RasterLuminanceSource ofLuma(Raster raster, byte[] buffer) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        if (raster.getDataBuffer() instanceof DataBufferByte dataBuffer
+                && raster.getSampleModel() instanceof ComponentSampleModel sampleModel
+                && sampleModel.getPixelStride() == 1
+                && sampleModel.getScanlineStride() == width
+                && sampleModel.getBandOffsets()[0] == 0
+                && dataBuffer.getNumBanks() == 1
+                && dataBuffer.getOffset() == 0
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+            return new RasterLuminanceSource(dataBuffer.getData(), width, height, 0, 0, width, height);
+        }
+
+        byte[] luminances = buffer(buffer, width, height);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(raster.getMinX(), raster.getMinY() + y, width, 1, 0, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                luminances[offset + x] = (byte) row[x];
+            }
+        }
+        return new RasterLuminanceSource(luminances, width, height, 0, 0, width, height);
+    }
+
+    @Override
+    public byte[] getRow(int y, byte[] row) {
+        if (y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Requested row is outside the image: " + y);
+        }
+        int width = getWidth();
+        if (row == null || row.length < width) {
+            row = new byte[width];
+        }
+        System.arraycopy(luminances, (y + top) * dataWidth + left, row, 0, width);
+        return row;
+    }
+
+    @Override
+    public byte[] getMatrix() {
+        int width = getWidth();
+        int height = getHeight();
+        if (width == dataWidth && height == dataHeight) {
+            return luminances;
+        }
+        byte[] matrix = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(luminances, (y + top) * dataWidth + left, matrix, y * width, width);
+        }
+        return matrix;
+    }
+
+    @Override
+    public boolean isCropSupported() {
+        return true;
+    }
+
+    @Override
+    public LuminanceSource crop(int left, int top, int width, int height) {
+        return new RasterLuminanceSource(luminances, dataWidth, dataHeight, this.left + left, this.top + top, width, height);
+    }
+
+    @Override
+    public boolean isRotateSupported() {
+        return true;
+    }
+
+    @Override
+    public LuminanceSource rotateCounterClockwise() {
+        int width = getWidth();
+        int height = getHeight();
+        byte[] rotated = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            int offset = (y + top) * dataWidth + left;
+            for (int x = 0; x < width; x++) {
+                rotated[(width - 1 - x) * height + y] = luminances[offset + x];
+            }
+        }
+        return new RasterLuminanceSource(rotated, height, width, 0, 0, height, width);
+    }
+
+    private static byte[] buffer(byte[] buffer, int width, int height) {
+        int size = width * height;
+        return buffer != null && buffer.length >= size ? buffer : new byte[size];
+    }
+
+    private static int luminance(int alpha, int red, int green, int blue) {
+        // Fully transparent pixels are usually the "white" area of a barcode, whatever their colour.
+        if (alpha == 0) {
+            return 0xFF;
+        }
+        // .299R + 0.587G + 0.114B, as in BufferedImageLuminanceSource; 0x200 implements rounding.
+        return (306 * red + 601 * green + 117 * blue + 0x200) >> 10;
+    }
+
+    private static void fromPalette(Raster raster, IndexColorModel colorModel, byte[] luminances) {
+        byte[] table = new byte[256];
+        for (int i = 0; i < colorModel.getMapSize(); i++) {
+            table[i] = (byte) luminance(colorModel.getAlpha(i), colorModel.getRed(i), colorModel.getGreen(i), colorModel.getBlue(i));
+        }
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(raster.getMinX(), raster.getMinY() + y, width, 1, 0, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                luminances[offset + x] = table[row[x] & 0xFF];
+            }
+        }
+    }
+
+    private static boolean isSrgb(ColorModel colorModel) {
+        return colorModel.getColorSpace().isCS_sRGB() && !colorModel.isAlphaPremultiplied();
+    }
+
+    private static boolean isInterleavedSrgb(Raster raster, ColorModel colorModel) {
+        return isSrgb(colorModel)
+                && colorModel instanceof ComponentColorModel
+                && raster.getDataBuffer() instanceof DataBufferByte dataBuffer && dataBuffer.getNumBanks() == 1
+                && raster.getSampleModel() instanceof PixelInterleavedSampleModel
+                && raster.getNumBands() == (colorModel.hasAlpha() ? 4 : 3);
+    }
+
+    private static void fromInterleavedBytes(Raster raster, boolean hasAlpha, byte[] luminances) {
+        PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+        DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+        byte[] data = dataBuffer.getData();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        int pixelStride = sampleModel.getPixelStride();
+        int scanlineStride = sampleModel.getScanlineStride();
+        int origin = dataBuffer.getOffset()
+                + (raster.getMinY() - raster.getSampleModelTranslateY()) * scanlineStride
+                + (raster.getMinX() - raster.getSampleModelTranslateX()) * pixelStride;
+        int red = bandOffsets[0];
+        int green = bandOffsets[1];
+        int blue = bandOffsets[2];
+        int alpha = hasAlpha ? bandOffsets[3] : -1;
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        for (int y = 0; y < height; y++) {
+            int index = origin + y * scanlineStride;
+            int offset = y * width;
+            for (int x = 0; x < width; x++, index += pixelStride) {
+                int a = alpha < 0 ? 0xFF : data[index + alpha] & 0xFF;
+                luminances[offset + x] = (byte) luminance(a, data[index + red] & 0xFF, data[index + green] & 0xFF, data[index + blue] & 0xFF);
+            }
+        }
+    }
+
+    private static boolean isPackedSrgb(Raster raster, ColorModel colorModel) {
+        return isSrgb(colorModel)
+                && colorModel instanceof DirectColorModel directColorModel
+                && directColorModel.getTransferType() == DataBuffer.TYPE_INT
+                && raster.getDataBuffer() instanceof DataBufferInt dataBuffer && dataBuffer.getNumBanks() == 1
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+                && isByteMask(directColorModel.getRedMask())
+                && isByteMask(directColorModel.getGreenMask())
+                && isByteMask(directColorModel.getBlueMask())
+                && (!directColorModel.hasAlpha() || isByteMask(directColorModel.getAlphaMask()));
+    }
+
+    private static boolean isByteMask(int mask) {
+        return mask != 0 && (mask >>> Integer.numberOfTrailingZeros(mask)) == 0xFF;
+    }
+
+    private static void fromPackedInts(Raster raster, DirectColorModel colorModel, byte[] luminances) {
+        SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+        int[] data = dataBuffer.getData();
+        int scanlineStride = sampleModel.getScanlineStride();
+        int origin = dataBuffer.getOffset()
+                + (raster.getMinY() - raster.getSampleModelTranslateY()) * scanlineStride
+                + (raster.getMinX() - raster.getSampleModelTranslateX());
+        int redShift = Integer.numberOfTrailingZeros(colorModel.getRedMask());
+        int greenShift = Integer.numberOfTrailingZeros(colorModel.getGreenMask());
+        int blueShift = Integer.numberOfTrailingZeros(colorModel.getBlueMask());
+        boolean hasAlpha = colorModel.hasAlpha();
+        int alphaShift = hasAlpha ? Integer.numberOfTrailingZeros(colorModel.getAlphaMask()) : 0;
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        for (int y = 0; y < height; y++) {
+            int index = origin + y * scanlineStride;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = data[index + x];
+                int alpha = hasAlpha ? (pixel >>> alphaShift) & 0xFF : 0xFF;
+                luminances[offset + x] = (byte) luminance(alpha, (pixel >>> redShift) & 0xFF, (pixel >>> greenShift) & 0xFF, (pixel >>> blueShift) & 0xFF);
+            }
+        }
+    }
+
+    private static void fromRgb(BufferedImage image, byte[] luminances) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                luminances[offset + x] = (byte) luminance(pixel >>> 24, (pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF);
+            }
+        }
+    }
+}
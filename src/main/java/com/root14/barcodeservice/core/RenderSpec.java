@@ -0,0 +1,28 @@
+package com.root14.barcodeservice.core;
+
+/**
+ * Describes everything that determines the bytes of a generated barcode image.
+ * <p>
+ * Generation is deterministic, so two equal specs always render to identical images.
+ * This makes the record suitable as a cache key.
+ *
+ * @param type   The key of the {@link Symbology} to render, as registered.
+ * @param data   The data encoded in the barcode.
+ * @param width  The requested width of the image in pixels.
+ * @param height The requested height of the image in pixels.
+ * @param format The output format key of the {@link MatrixRenderer} (e.g., "png", "svg").
+ */
+public record RenderSpec(String type, String data, int width, int height, String format) {
+
+    /**
+     * Creates a spec for a PNG image.
+     *
+     * @param type   The {@link BarcodeType} to render.
+     * @param data   The data encoded in the barcode.
+     * @param width  The requested width of the image in pixels.
+     * @param height The requested height of the image in pixels.
+     */
+    public RenderSpec(BarcodeType type, String data, int width, int height) {
+        this(type.getKey(), data, width, height, OutputFormat.PNG.format());
+    }
+}
@@ -0,0 +1,74 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Renders a {@link BitMatrix} as an SVG document.
+ *
+ * <p>The matrix is expected at native module resolution: the {@code viewBox} is one unit per module
+ * and the requested size is applied through the {@code width}/{@code height} attributes, so the output
+ * stays sharp at any print size. Runs of modules are merged (see {@link ModuleRuns}) and written as a
+ * single {@code <path>}. Linear barcodes, which have a single row, are stretched to the requested height;
+ * 2D symbols keep their aspect ratio and are centred.</p>
+ */
+public final class SvgMatrixWriter {
+    private static final MatrixToImageConfig DEFAULT_CONFIG = new MatrixToImageConfig();
+
+    private SvgMatrixWriter() {
+    }
+
+    /**
+     * Renders the matrix as SVG and writes it to the given stream. The stream is not closed.
+     *
+     * @param matrix The {@link BitMatrix} to render, at native module resolution.
+     * @param width  The width of the image in pixels.
+     * @param height The height of the image in pixels.
+     * @param config The {@link MatrixToImageConfig} providing the on/off colours (can be null for default).
+     * @param out    The {@link OutputStream} to write the document to.
+     * @throws IOException If writing to the stream fails.
+     */
+    public static void writeToStream(BitMatrix matrix, int width, int height, MatrixToImageConfig config, OutputStream out) throws IOException {
+        if (config == null) {
+            config = DEFAULT_CONFIG;
+        }
+        int columns = matrix.getWidth();
+        int rows = matrix.getHeight();
+        String aspect = rows == 1 ? "none" : "xMidYMid meet";
+
+        Writer svg = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        svg.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        svg.write("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"0 0 " + columns + " " + rows + "\" preserveAspectRatio=\"" + aspect
+                + "\" shape-rendering=\"crispEdges\">\n");
+        svg.write("<rect width=\"" + columns + "\" height=\"" + rows + "\"" + fill(config.getPixelOffColor()) + "/>\n");
+        svg.write("<path" + fill(config.getPixelOnColor()) + " d=\"");
+
+        StringBuilder segment = new StringBuilder(32);
+        ModuleRuns.forEach(matrix, (x, y, w, h) -> {
+            segment.setLength(0);
+            segment.append('M').append(x).append(' ').append(y)
+                    .append('h').append(w).append('v').append(h).append('h').append(-w).append('z');
+            svg.append(segment);
+        });
+
+        svg.write("\"/>\n</svg>\n");
+        svg.flush();
+    }
+
+    private static String fill(int argb) {
+        String attribute = String.format(" fill=\"#%06X\"", argb & 0xFFFFFF);
+        int alpha = argb >>> 24;
+        if (alpha != 0xFF) {
+            attribute += String.format(Locale.ROOT, " fill-opacity=\"%.3f\"", alpha / 255.0);
+        }
+        return attribute;
+    }
+}
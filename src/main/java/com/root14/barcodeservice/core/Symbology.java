@@ -0,0 +1,16 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Writer;
+
+/**
+ * A barcode symbology clients can request by key, together with the resolved {@link Writer} that encodes it.
+ * The built-in symbologies are derived from {@link BarcodeType}; custom ones are contributed through a
+ * {@link SymbologyProvider}.
+ *
+ * @param key    The key clients use to select this symbology (e.g., "qr"); matched case-insensitively.
+ * @param format The {@link BarcodeFormat} passed to the writer.
+ * @param writer The {@link Writer} instance; shared between requests, so it must be stateless.
+ */
+public record Symbology(String key, BarcodeFormat format, Writer writer) {
+}
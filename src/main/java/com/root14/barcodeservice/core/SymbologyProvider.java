@@ -0,0 +1,32 @@
+package com.root14.barcodeservice.core;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A service provider interface for contributing custom symbologies and output formats to the {@link SymbologyRegistry}.
+ *
+ * <p>Implementations are picked up at startup either as Spring beans or through {@link java.util.ServiceLoader}
+ * (listed in {@code META-INF/services/com.root14.barcodeservice.core.SymbologyProvider}). Entries with the key of
+ * an existing symbology or format replace it. Providers can also be registered later with
+ * {@link SymbologyRegistry#register(SymbologyProvider)}.</p>
+ */
+public interface SymbologyProvider {
+    /**
+     * Returns the symbologies contributed by this provider.
+     *
+     * @return the symbologies, empty by default
+     */
+    default Collection<Symbology> symbologies() {
+        return List.of();
+    }
+
+    /**
+     * Returns the output formats contributed by this provider.
+     *
+     * @return the renderers, empty by default
+     */
+    default Collection<MatrixRenderer> renderers() {
+        return List.of();
+    }
+}
@@ -0,0 +1,190 @@
+package com.root14.barcodeservice.core;
+
+import com.google.zxing.Writer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * The lookup table of all symbologies and output formats the service can produce.
+ *
+ * <p>Writers are resolved once when the registry is built, so request handling is a single hash lookup on a
+ * lower-case key with no container calls. The tables are immutable and replaced as a whole when a
+ * {@link SymbologyProvider} is registered (copy-on-write), so readers never lock and always see a consistent
+ * snapshot. Registration is expected to be rare compared to lookups.</p>
+ *
+ * <p>Anything derived from a symbology or output format, such as cached images, is keyed by its key only. When a
+ * registration replaces an existing entry, the {@link ReplacementListener}s are told which keys changed, so they
+ * can drop what the previous writer or renderer produced.</p>
+ */
+public final class SymbologyRegistry {
+    private volatile Map<String, Symbology> symbologies;
+    private volatile Map<String, MatrixRenderer> renderers;
+    private volatile Map<String, MatrixRenderer> renderersByContentType;
+    private final List<ReplacementListener> replacementListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives the keys of entries replaced by {@link #register}.
+     */
+    @FunctionalInterface
+    public interface ReplacementListener {
+        /**
+         * Called after a registration replaced existing entries, once the new entries are visible to lookups.
+         *
+         * @param symbologyKeys the lower-case keys of the replaced symbologies; may be empty
+         * @param formats       the lower-case keys of the replaced output formats; may be empty
+         */
+        void replaced(Set<String> symbologyKeys, Set<String> formats);
+    }
+
+    /**
+     * Creates a registry with the given symbologies and output formats.
+     *
+     * @param symbologies the symbologies; later entries replace earlier ones with the same key
+     * @param renderers   the output formats; later entries replace earlier ones with the same key
+     */
+    public SymbologyRegistry(Collection<Symbology> symbologies, Collection<? extends MatrixRenderer> renderers) {
+        this.symbologies = Map.copyOf(index(Map.of(), symbologies, Symbology::key));
+        publishRenderers(index(Map.of(), renderers, MatrixRenderer::format));
+    }
+
+    /**
+     * Creates a registry with every {@link BarcodeType} and {@link OutputFormat}, resolving the writers with the given function.
+     *
+     * @param writerLookup returns the shared writer instance for a writer class (e.g., a Spring bean lookup)
+     * @return the new registry
+     */
+    public static SymbologyRegistry withBuiltIns(Function<Class<? extends Writer>, ? extends Writer> writerLookup) {
+        List<Symbology> builtIns = new ArrayList<>();
+        for (BarcodeType type : BarcodeType.values()) {
+            builtIns.add(new Symbology(type.getKey(), type.getFormat(), writerLookup.apply(type.getWriterClass())));
+        }
+        return new SymbologyRegistry(builtIns, List.of(OutputFormat.values()));
+    }
+
+    /**
+     * Creates a registry with every {@link BarcodeType} and {@link OutputFormat}, instantiating one writer per type.
+     *
+     * @return the new registry
+     */
+    public static SymbologyRegistry withBuiltIns() {
+        return withBuiltIns(SymbologyRegistry::newWriter);
+    }
+
+    /**
+     * Returns the symbology for the given key. The comparison is case-insensitive.
+     *
+     * @param key the symbology key (e.g., "qr", "code128")
+     * @return the {@link Symbology}
+     * @throws IllegalArgumentException if no symbology is registered under the key
+     */
+    public Symbology symbology(String key) {
+        Symbology symbology = key == null ? null : symbologies.get(key.toLowerCase(Locale.ROOT));
+        if (symbology == null) {
+            throw new IllegalArgumentException("Unknown barcode type: " + key);
+        }
+        return symbology;
+    }
+
+    /**
+     * Returns the output format for the given key. The comparison is case-insensitive.
+     *
+     * @param format the format key (e.g., "png", "svg")
+     * @return the {@link MatrixRenderer}
+     * @throws IllegalArgumentException if no output format is registered under the key
+     */
+    public MatrixRenderer renderer(String format) {
+        MatrixRenderer renderer = format == null ? null : renderers.get(format.toLowerCase(Locale.ROOT));
+        if (renderer == null) {
+            throw new IllegalArgumentException("Unknown output format: " + format);
+        }
+        return renderer;
+    }
+
+    /**
+     * Returns the output format producing the given MIME type, if any.
+     *
+     * @param contentType the MIME type to look up (e.g., "image/svg+xml"), without parameters
+     * @return the matching {@link MatrixRenderer}, or empty if none produces this type
+     */
+    public Optional<MatrixRenderer> rendererForContentType(String contentType) {
+        return Optional.ofNullable(renderersByContentType.get(contentType.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Returns all registered symbologies.
+     *
+     * @return an unmodifiable snapshot of the symbologies
+     */
+    public Collection<Symbology> symbologies() {
+        return symbologies.values();
+    }
+
+    /**
+     * Adds the symbologies and output formats of the given provider, replacing entries with the same key.
+     * If entries are replaced, the {@link ReplacementListener}s are notified before this method returns.
+     *
+     * @param provider the provider to register
+     */
+    public synchronized void register(SymbologyProvider provider) {
+        Map<String, Symbology> oldSymbologies = symbologies;
+        Map<String, MatrixRenderer> oldRenderers = renderers;
+        symbologies = Map.copyOf(index(oldSymbologies, provider.symbologies(), Symbology::key));
+        publishRenderers(index(oldRenderers, provider.renderers(), MatrixRenderer::format));
+
+        Set<String> replacedSymbologies = replaced(oldSymbologies, symbologies);
+        Set<String> replacedFormats = replaced(oldRenderers, renderers);
+        if (!replacedSymbologies.isEmpty() || !replacedFormats.isEmpty()) {
+            for (ReplacementListener listener : replacementListeners) {
+                listener.replaced(replacedSymbologies, replacedFormats);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener notified whenever {@link #register} replaces existing entries.
+     *
+     * @param listener the listener to add
+     */
+    public void addReplacementListener(ReplacementListener listener) {
+        replacementListeners.add(listener);
+    }
+
+    private void publishRenderers(Map<String, MatrixRenderer> byFormat) {
+        Map<String, MatrixRenderer> byContentType = new HashMap<>();
+        for (MatrixRenderer renderer : byFormat.values()) {
+            byContentType.put(renderer.contentType().toLowerCase(Locale.ROOT), renderer);
+        }
+        // publish the content type index first; it is only used to negotiate, the format lookup stays authoritative
+        renderersByContentType = Map.copyOf(byContentType);
+        renderers = Map.copyOf(byFormat);
+    }
+
+    private static Set<String> replaced(Map<String, ?> before, Map<String, ?> after) {
+        Set<String> replaced = new HashSet<>();
+        before.forEach((key, entry) -> {
+            if (after.get(key) != entry) {
+                replaced.add(key);
+            }
+        });
+        return Set.copyOf(replaced);
+    }
+
+    private static <T> Map<String, T> index(Map<String, T> existing, Collection<? extends T> entries, Function<T, String> key) {
+        Map<String, T> index = new HashMap<>(existing);
+        for (T entry : entries) {
+            index.put(key.apply(entry).toLowerCase(Locale.ROOT), entry);
+        }
+        return index;
+    }
+
+    private static Writer newWriter(Class<? extends Writer> writerClass) {
+        try {
+            return writerClass.getDeclaredConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot instantiate " + writerClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.root14.barcodeservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) carrying the outcome of one item of a batch generation request.
+ * <p>
+ * Exactly one of {@code barcode} and {@code errorCode} is set. Failed items do not abort the batch;
+ * they are reported with the same error codes the single-item endpoints use.
+ *
+ * @param index     the position of the item in the request
+ * @param uuid      the UUID of the stored barcode, or {@code null} if it was not stored
+ * @param barcode   the raw byte array representing the barcode image, or {@code null} on failure
+ * @param createdAt the timestamp indicating when the image was created or stored
+ * @param errorCode the error code on failure (e.g., "BARCODE_ENCODING_ERROR")
+ * @param message   a human-readable error message on failure
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(int index, String uuid, byte[] barcode, Instant createdAt, String errorCode,
+                              String message) {
+
+    /**
+     * Creates a successful result from a generated image.
+     *
+     * @param index the position of the item in the request
+     * @param image the generated image
+     * @return the result
+     */
+    public static BatchItemResult success(int index, ImageObject image) {
+        return new BatchItemResult(index, image.uuid(), image.barcode(), image.createdAt(), null, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param index     the position of the item in the request
+     * @param errorCode the error code describing the failure
+     * @param message   a human-readable error message
+     * @return the result
+     */
+    public static BatchItemResult failure(int index, String errorCode, String message) {
+        return new BatchItemResult(index, null, null, null, errorCode, message);
+    }
+
+    /**
+     * Returns whether the item was generated successfully.
+     *
+     * @return {@code true} if the item carries an image
+     */
+    @JsonIgnore
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.root14.barcodeservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.root14.barcodeservice.core.BarcodeResult;
+
+/**
+ * Data Transfer Object (DTO) carrying the outcome of one entry of a batch read request.
+ * <p>
+ * Exactly one of {@code result} and {@code errorCode} is set. The fields of a decoded {@link BarcodeResult} are
+ * written inline, so a successful line looks like the response of {@code POST /read} with the entry's
+ * {@code index} and {@code name} added. Failed entries do not abort the batch; they are reported with the same
+ * error codes the single-item endpoints use.
+ *
+ * @param index     the position of the entry in the upload
+ * @param name      the file name of the entry, or {@code null} if the upload did not carry one
+ * @param result    the decoded barcode, or {@code null} on failure
+ * @param errorCode the error code on failure (e.g., "BARCODE_NOT_FOUND")
+ * @param message   a human-readable error message on failure
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchReadResult(int index, String name, @JsonUnwrapped BarcodeResult result, String errorCode,
+                              String message) {
+
+    /**
+     * Creates a successful result.
+     *
+     * @param index  the position of the entry in the upload
+     * @param name   the file name of the entry
+     * @param result the decoded barcode
+     * @return the result
+     */
+    public static BatchReadResult success(int index, String name, BarcodeResult result) {
+        return new BatchReadResult(index, name, result, null, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param index     the position of the entry in the upload
+     * @param name      the file name of the entry
+     * @param errorCode the error code describing the failure
+     * @param message   a human-readable error message
+     * @return the result
+     */
+    public static BatchReadResult failure(int index, String name, String errorCode, String message) {
+        return new BatchReadResult(index, name, null, errorCode, message);
+    }
+
+    /**
+     * Returns whether a barcode was decoded from the entry.
+     *
+     * @return {@code true} if the entry carries a result
+     */
+    @JsonIgnore
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.root14.barcodeservice.dto;
+
+/**
+ * Data Transfer Object (DTO) describing a single barcode to generate in a batch request.
+ * <p>
+ * The fields mirror the query parameters of {@code GET /generate}; missing dimensions fall back
+ * to the same defaults.
+ *
+ * @param type   the barcode type (e.g., "qr", "code128")
+ * @param data   the data to encode in the barcode
+ * @param width  the width of the image in pixels, or {@code null} for the default
+ * @param height the height of the image in pixels, or {@code null} for the default
+ */
+public record GenerateSpec(String type, String data, Integer width, Integer height) {
+}
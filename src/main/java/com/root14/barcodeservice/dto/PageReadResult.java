@@ -0,0 +1,25 @@
+package com.root14.barcodeservice.dto;
+
+import com.root14.barcodeservice.core.BarcodeResult;
+import com.root14.barcodeservice.core.PageResult;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) carrying the barcodes found on one page of a multi-page image.
+ *
+ * @param page    the zero-based index of the page in the image
+ * @param results the barcodes decoded on the page, empty if none was found
+ */
+public record PageReadResult(int page, List<BarcodeResult> results) {
+
+    /**
+     * Converts the result of a page.
+     *
+     * @param page the decoded page
+     * @return the page result
+     */
+    public static PageReadResult of(PageResult page) {
+        return new PageReadResult(page.page(), page.results().stream().map(BarcodeResult::of).toList());
+    }
+}
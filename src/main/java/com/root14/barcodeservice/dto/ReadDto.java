@@ -1,12 +1,122 @@
 package com.root14.barcodeservice.dto;
 
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
+import com.root14.barcodeservice.service.BarcodeService;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Data Transfer Object (DTO) used for submitting barcode data in base64 format.
  * <p>
  * This record is typically used in JSON requests where the barcode image
- * is provided as a base64-encoded string.
+ * is provided as a base64-encoded string. The string is decoded while the request body is parsed, straight from
+ * the parser's input buffer, so the encoded text is never held in memory as a whole. Decoding stops as soon as the
+ * image exceeds {@code barcode.read.max-bytes}, so an oversized image is never buffered either. The decoded bytes are
+ * collected in fixed-size chunks and copied once into an array of the exact size, so memory peaks at about twice the
+ * image while they are assembled, rather than the up to three times a doubling buffer and its final copy would take.
  *
- * @param data the base64-encoded representation of the barcode image
+ * @param data the decoded bytes of the barcode image, sent base64-encoded; padding is optional
  */
-public record ReadDto(String data) {
+public record ReadDto(@JsonDeserialize(using = ReadDto.Base64Deserializer.class) byte[] data) {
+
+    /**
+     * Decodes base64 text with or without trailing padding, like {@link java.util.Base64#getDecoder()}.
+     * Instantiated by Spring's handler instantiator, which injects the limit.
+     */
+    static final class Base64Deserializer extends JsonDeserializer<byte[]> {
+        private static final Base64Variant BASE64 = Base64Variants.MIME_NO_LINEFEEDS
+                .withReadPadding(Base64Variant.PaddingReadBehaviour.PADDING_ALLOWED);
+
+        @Value("${barcode.read.max-bytes:" + BarcodeService.DEFAULT_MAX_READ_BYTES + "}")
+        private long maxBytes = BarcodeService.DEFAULT_MAX_READ_BYTES;
+
+        @Override
+        public byte[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (byte[]) context.handleUnexpectedToken(byte[].class, parser);
+            }
+            BoundedOutputStream image = new BoundedOutputStream(maxBytes);
+            parser.readBinaryValue(BASE64, image);
+            return image.toByteArray();
+        }
+    }
+
+    /**
+     * Collects the decoded bytes in chunks and fails as soon as they exceed the limit. Chunks are filled completely,
+     * so no memory is wasted on slack beyond the last one.
+     */
+    private static final class BoundedOutputStream extends OutputStream {
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        private final long maxBytes;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private byte[] chunk;
+        private int position;
+        private long count;
+
+        BoundedOutputStream(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void write(int b) {
+            checkRoom(1);
+            nextChunkIfFull();
+            chunk[position++] = (byte) b;
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            checkRoom(len);
+            while (len > 0) {
+                nextChunkIfFull();
+                int n = Math.min(len, chunk.length - position);
+                System.arraycopy(b, off, chunk, position, n);
+                position += n;
+                off += n;
+                len -= n;
+                count += n;
+            }
+        }
+
+        /**
+         * Returns the collected bytes in one array of the exact size. Each chunk is released once it is copied.
+         */
+        byte[] toByteArray() {
+            byte[] bytes = new byte[(int) count];
+            int offset = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                int n = (int) Math.min(chunks.get(i).length, count - offset);
+                System.arraycopy(chunks.set(i, null), 0, bytes, offset, n);
+                offset += n;
+            }
+            return bytes;
+        }
+
+        private void nextChunkIfFull() {
+            if (chunk == null || position == chunk.length) {
+                chunk = new byte[CHUNK_SIZE];
+                chunks.add(chunk);
+                position = 0;
+            }
+        }
+
+        private void checkRoom(int len) {
+            if (count + len > maxBytes) {
+                throw new ImageTooLargeException("Image exceeds the limit of " + maxBytes + " bytes.");
+            }
+        }
+    }
 }
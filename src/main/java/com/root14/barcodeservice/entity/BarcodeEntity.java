@@ -1,37 +1,115 @@
 package com.root14.barcodeservice.entity;
 
-import com.root14.barcodeservice.dto.ImageObject;
+import com.root14.barcodeservice.core.OutputFormat;
+import com.root14.barcodeservice.core.RenderSpec;
 import jakarta.persistence.*;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.UUID;
 
 /**
  * Represents a barcode entity stored in the database.
  * This entity is mapped to the "barcodes" table and includes fields for a unique ID,
- * creation timestamp, and the barcode image data as a byte array.
+ * creation timestamp, and the {@link RenderSpec} the barcode was generated from.
  * It uses JPA annotations for persistence and Spring Data's auditing features to
  * automatically populate the creation date.
+ * <p>
+ * Generation is deterministic, so only the spec is stored and the image is rendered again when it is
+ * requested. A row takes a few dozen bytes instead of a PNG. Rows written by earlier versions carry the
+ * image itself in {@code barcode} and no spec; they are served as stored.
+ * <p>
+ * Each spec is stored once. The SHA-256 {@link #hash} of the spec is kept in {@code spec_hash} under a unique
+ * index, so storing the same barcode again finds the existing row instead of inserting another one. Rows with a spec
+ * but no hash are aliases {@link com.root14.barcodeservice.service.BarcodeWriteBehind} stored for a UUID it had
+ * handed out when the same spec was stored concurrently under another one.
+ * <p>
+ * IDs are time-ordered {@link UuidV7} values assigned when the entity is created, so new rows are appended to the
+ * primary key index and their order follows their creation time. Since the ID is known up front, the entity tells
+ * Spring Data whether it is new through {@link Persistable}, and saving it inserts without a preceding select.
+ * Rows stored with random version 4 IDs by earlier versions keep them, as clients may still hold them; both
+ * versions share the {@code uuid} column.
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "barcodes")
-public class BarcodeEntity {
+@Table(name = "barcodes", indexes = @Index(name = "barcodes_spec_hash_key", columnList = "spec_hash", unique = true))
+public class BarcodeEntity implements Persistable<UUID> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    @Transient
+    private boolean persisted;
+
     @CreatedDate
     private Instant createdAt;
 
-    @Lob
+    private String type;
+
+    @Column(columnDefinition = "text")
+    private String data;
+
+    private Integer width;
+
+    private Integer height;
+
+    @Column(name = "spec_hash", length = 32)
+    private byte[] specHash;
+
+    // only set on rows stored before specs were, new rows leave it null; bytea, see LargeObjectMigration
     private byte[] barcode;
 
     /**
-     * Constructs a new BarcodeEntity with the given barcode byte array.
+     * Constructs a new BarcodeEntity storing the given render spec, with a new ID and the current time.
+     *
+     * @param spec The spec of a PNG barcode.
+     */
+    public BarcodeEntity(RenderSpec spec) {
+        this.id = UuidV7.next();
+        this.createdAt = Instant.now();
+        this.type = spec.type();
+        this.data = spec.data();
+        this.width = spec.width();
+        this.height = spec.height();
+        this.specHash = hash(spec);
+    }
+
+    /**
+     * Computes the key identifying a spec in the {@code spec_hash} column.
+     * Every field is length-prefixed, so different specs cannot produce the same input to the digest.
+     *
+     * @param spec The spec to hash.
+     * @return The 32-byte SHA-256 digest of the spec.
+     */
+    public static byte[] hash(RenderSpec spec) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        update(digest, spec.type());
+        update(digest, spec.data());
+        update(digest, spec.format());
+        digest.update(ByteBuffer.allocate(8).putInt(spec.width()).putInt(spec.height()).array());
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * Constructs a new BarcodeEntity with the given barcode byte array, as stored by earlier versions.
      *
      * @param barcode The byte array representing the barcode image.
      */
@@ -40,18 +118,30 @@ public class BarcodeEntity {
     }
 
     /**
-     * Converts this BarcodeEntity into an {@link ImageObject} DTO.
+     * Retrieves the spec the barcode is rendered from.
+     *
+     * @return The {@link RenderSpec} of the PNG image, or {@code null} if the row stores the image itself.
+     */
+    public RenderSpec getRenderSpec() {
+        if (type == null) {
+            return null;
+        }
+        return new RenderSpec(type, data, width, height, OutputFormat.PNG.format());
+    }
+
+    /**
+     * Retrieves the hash identifying the stored spec.
      *
-     * @return An {@link ImageObject} containing the ID, barcode byte array, and creation timestamp.
+     * @return The SHA-256 digest of the {@link RenderSpec}, or {@code null} if the row stores the image itself.
      */
-    public ImageObject getAsDto() {
-        return new ImageObject(getId().toString(), getBarcode(), getCreatedAt());
+    public byte[] getSpecHash() {
+        return specHash;
     }
 
     /**
      * Retrieves the barcode image data as a byte array.
      *
-     * @return The barcode image data.
+     * @return The barcode image data, or {@code null} if the row stores a {@link RenderSpec} instead.
      */
     public byte[] getBarcode() {
         return barcode;
@@ -79,6 +169,7 @@ public class BarcodeEntity {
      *
      * @return The UUID of the barcode.
      */
+    @Override
     public UUID getId() {
         return id;
     }
@@ -94,6 +185,22 @@ public class BarcodeEntity {
         return this;
     }
 
+    /**
+     * Returns whether this entity was neither loaded from nor written to the database yet.
+     *
+     * @return {@code true} if saving the entity must insert it
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
     /**
      * Retrieves the creation timestamp of the barcode entity.
      *
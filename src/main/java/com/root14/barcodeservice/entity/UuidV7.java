@@ -0,0 +1,69 @@
+package com.root14.barcodeservice.entity;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs as specified in RFC 9562.
+ * <p>
+ * The upper 48 bits hold the Unix time in milliseconds and the following 12 bits ({@code rand_a}) a counter, so
+ * the UUIDs generated by this process are strictly increasing, also within one millisecond. Primary keys taken from
+ * here are appended to the right edge of the index instead of being scattered across it like random version 4 keys,
+ * and sort by creation time. When more than 4096 UUIDs are requested in one millisecond, the counter carries into
+ * the timestamp, which then runs slightly ahead of the clock until it catches up.
+ * <p>
+ * The clock and counter are advanced with a single compare-and-set, so concurrent callers never block each other.
+ * The remaining 62 bits are random, from a {@link SecureRandom} per thread, which keeps the UUIDs as hard to guess
+ * as a stored barcode's only access key needs to be.
+ */
+public final class UuidV7 {
+    private static final AtomicLong LAST = new AtomicLong();
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(UuidV7::newRandom);
+
+    private UuidV7() {
+    }
+
+    /**
+     * Returns a new UUID, greater than every UUID returned before by this process.
+     *
+     * @return a version 7 UUID
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long prev;
+        long next;
+        do {
+            prev = LAST.get();
+            next = Math.max(now, prev + 1);
+        } while (!LAST.compareAndSet(prev, next));
+
+        long msb = (next >>> 12) << 16 | 0x7000L | (next & 0xFFFL);
+        long lsb = RANDOM.get().nextLong() >>> 2 | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Returns the creation time encoded in a version 7 UUID.
+     *
+     * @param uuid a version 7 UUID
+     * @return the Unix time in milliseconds
+     * @throws IllegalArgumentException if the UUID is not version 7
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            // unlike the default NativePRNG, DRBG instances do not share a lock
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.root14.barcodeservice.exception;
+
+/**
+ * Thrown when the fallback strategies of a read ran out of their time budget before every strategy was tried.
+ * <p>
+ * Unlike ZXing's {@code NotFoundException}, this does not mean the image holds no barcode, only that none was found
+ * in time; a later read of the same image under less load may still succeed. Decode outcomes are therefore not
+ * cached for it. It is reported to clients like a barcode that was not found.
+ */
+public class DecodeTimeoutException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the budget that was exceeded
+     */
+    public DecodeTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -4,10 +4,13 @@ import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.WriterException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -20,6 +23,9 @@ import java.util.Map;
  * exception handling across all `@Controller` classes.
  * It maps various exceptions (e.g., from ZXing library, I/O errors) to appropriate HTTP
  * status codes and standardized error responses.
+ * <p>
+ * Every error is sent as JSON, whatever the request accepts. Clients of the raw image endpoints send
+ * {@code Accept: image/png}, and negotiating the error body against that would fail and lose the status.
  */
 @ControllerAdvice
 @ResponseBody
@@ -48,16 +54,72 @@ public class GlobalExceptionHandler {
             body.put("error", "Unprocessable Entity");
             body.put("message", "Data is not valid for barcode format.");
             body.put("errorCode", "INVALID_BARCODE_FORMAT");
-            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).contentType(MediaType.APPLICATION_JSON).body(body);
         } else {
             body.put("status", HttpStatus.BAD_REQUEST.value());
             body.put("error", "Bad Request");
             body.put("message", exception.getMessage());
             body.put("errorCode", "INVALID_ARGUMENT");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(body);
         }
     }
 
+    /**
+     * Handles {@link ImageTooLargeException}, for images above the configured byte or pixel limits.
+     * Returns HTTP 413 Payload Too Large.
+     *
+     * @param ex the ImageTooLargeException that was thrown
+     * @return a {@link ResponseEntity} with error details and 413 status.
+     */
+    @ExceptionHandler(ImageTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handleImageTooLargeException(ImageTooLargeException ex) {
+        return imageTooLarge(ex.getMessage());
+    }
+
+    /**
+     * Handles {@link MaxUploadSizeExceededException}, thrown for multipart uploads above
+     * {@code spring.servlet.multipart.max-file-size} before they reach a controller.
+     * Returns HTTP 413 Payload Too Large.
+     *
+     * @param ex the MaxUploadSizeExceededException that was thrown
+     * @return a {@link ResponseEntity} with error details and 413 status.
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleMaxUploadSizeExceededException(MaxUploadSizeExceededException ex) {
+        return imageTooLarge("The uploaded image exceeds the size limit.");
+    }
+
+    private static ResponseEntity<Map<String, Object>> imageTooLarge(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.PAYLOAD_TOO_LARGE.value());
+        body.put("error", "Payload Too Large");
+        body.put("message", message);
+        body.put("errorCode", "IMAGE_TOO_LARGE");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Handles request bodies that cannot be parsed, e.g. malformed JSON or image data that is not valid base64.
+     * Returns HTTP 400 Bad Request, or HTTP 413 Payload Too Large if parsing stopped at an {@link ImageTooLargeException}.
+     *
+     * @param ex the HttpMessageNotReadableException that was thrown
+     * @return a {@link ResponseEntity} with error details and 400 or 413 status.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        if (ex.getMostSpecificCause() instanceof ImageTooLargeException tooLarge) {
+            return imageTooLarge(tooLarge.getMessage());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", "The request body is malformed.");
+        body.put("errorCode", "INVALID_ARGUMENT");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * Handles {@link NotFoundException} from ZXing.
      * Returns HTTP 404 Not Found.
@@ -73,7 +135,25 @@ public class GlobalExceptionHandler {
         body.put("error", "Not Found");
         body.put("message", "Barcode not found in the provided data.");
         body.put("errorCode", "BARCODE_NOT_FOUND");
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Handles {@link DecodeTimeoutException}, a read whose fallback strategies ran out of time.
+     * Returns HTTP 404 Not Found, like a barcode that was not found, with a message saying the search was cut short.
+     *
+     * @param ex the DecodeTimeoutException that was thrown
+     * @return a {@link ResponseEntity} with error details and 404 status.
+     */
+    @ExceptionHandler(DecodeTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleDecodeTimeoutException(DecodeTimeoutException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.NOT_FOUND.value());
+        body.put("error", "Not Found");
+        body.put("message", "Barcode not found within the decode time budget.");
+        body.put("errorCode", "BARCODE_NOT_FOUND");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -91,7 +171,7 @@ public class GlobalExceptionHandler {
         body.put("error", "Internal Server Error");
         body.put("message", "An I/O error occurred during processing.");
         body.put("errorCode", "IO_ERROR");
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -109,7 +189,7 @@ public class GlobalExceptionHandler {
         body.put("error", "Bad Request");
         body.put("message", "Error encoding barcode data: " + ex.getMessage());
         body.put("errorCode", "BARCODE_ENCODING_ERROR");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -129,6 +209,6 @@ public class GlobalExceptionHandler {
         body.put("errorCode", "UNEXPECTED_ERROR");
         // for more detailed err msg
         // body.put("debugMessage", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
\ No newline at end of file
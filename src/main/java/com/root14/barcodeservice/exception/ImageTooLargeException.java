@@ -0,0 +1,21 @@
+package com.root14.barcodeservice.exception;
+
+/**
+ * Thrown when an uploaded image exceeds the configured byte or pixel limits.
+ * <p>
+ * The limits are checked before the image is buffered or decoded, from the announced upload size and the dimensions
+ * in the image header, so oversized uploads and decompression bombs are turned away without allocating a raster.
+ * It is an {@link IllegalArgumentException}, as the request itself is at fault, but is reported with its own error
+ * code.
+ */
+public class ImageTooLargeException extends IllegalArgumentException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the limit that was exceeded
+     */
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,11 @@
 package com.root14.barcodeservice.repository;
 
 import com.root14.barcodeservice.entity.BarcodeEntity;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -12,4 +15,22 @@ import java.util.UUID;
  * objects with {@link UUID} as the primary key type.
  */
 public interface BarcodeRepository extends CrudRepository<BarcodeEntity, UUID> {
+
+    /**
+     * Finds the barcode stored for a render spec, using the unique index on its hash.
+     *
+     * @param specHash the hash of the spec, see {@link BarcodeEntity#hash}
+     * @return the stored barcode, or empty if the spec was never stored
+     */
+    Optional<BarcodeEntity> findBySpecHash(byte[] specHash);
+
+    /**
+     * Reads the columns needed to serve a stored barcode, without loading the entity into the persistence context.
+     *
+     * @param id the UUID of the barcode
+     * @return the stored barcode, or empty if there is none with this UUID
+     */
+    @Query("select new com.root14.barcodeservice.repository.StoredBarcode(b.id, b.createdAt, b.type, b.data, b.width, b.height, b.barcode)"
+            + " from BarcodeEntity b where b.id = :id")
+    Optional<StoredBarcode> findStoredById(@Param("id") UUID id);
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.root14.barcodeservice.repository;
+
+import com.root14.barcodeservice.core.OutputFormat;
+import com.root14.barcodeservice.core.RenderSpec;
+import com.root14.barcodeservice.entity.BarcodeEntity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of a stored barcode needed to serve it, read without materializing a {@link BarcodeEntity}.
+ * <p>
+ * Either the spec fields or {@code barcode} are set: rows stored by current versions carry the spec the image is
+ * rendered from, rows stored by earlier versions the image itself.
+ *
+ * @param id        the UUID of the barcode
+ * @param createdAt the creation timestamp
+ * @param type      the symbology key, or {@code null} for rows storing the image
+ * @param data      the data encoded in the barcode
+ * @param width     the width of the image in pixels
+ * @param height    the height of the image in pixels
+ * @param barcode   the PNG image of rows stored by earlier versions, or {@code null}
+ */
+public record StoredBarcode(UUID id, Instant createdAt, String type, String data, Integer width, Integer height,
+                            byte[] barcode) {
+
+    /**
+     * Creates the projection of an entity that is not written to the database yet.
+     *
+     * @param entity the entity
+     * @return its projection
+     */
+    public static StoredBarcode of(BarcodeEntity entity) {
+        RenderSpec spec = entity.getRenderSpec();
+        if (spec == null) {
+            return new StoredBarcode(entity.getId(), entity.getCreatedAt(), null, null, null, null, entity.getBarcode());
+        }
+        return new StoredBarcode(entity.getId(), entity.getCreatedAt(), spec.type(), spec.data(), spec.width(), spec.height(), null);
+    }
+
+    /**
+     * Returns the spec the barcode is rendered from.
+     *
+     * @return The {@link RenderSpec} of the PNG image, or {@code null} if the row stores the image itself.
+     */
+    public RenderSpec renderSpec() {
+        if (type == null) {
+            return null;
+        }
+        return new RenderSpec(type, data, width, height, OutputFormat.PNG.format());
+    }
+}
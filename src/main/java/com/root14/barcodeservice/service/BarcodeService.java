@@ -1,29 +1,34 @@
 package com.root14.barcodeservice.service;
 
 import com.google.zxing.*;
-import com.root14.barcodeservice.core.BarcodeGenerator;
-import com.root14.barcodeservice.core.BarcodeReader;
-import com.root14.barcodeservice.core.BarcodeType;
+import com.google.zxing.common.BitMatrix;
+import com.root14.barcodeservice.cache.DecodeCache;
+import com.root14.barcodeservice.cache.ImageCache;
+import com.root14.barcodeservice.cache.MatrixCache;
+import com.root14.barcodeservice.cache.StoredBarcodeCache;
+import com.root14.barcodeservice.core.*;
 import com.root14.barcodeservice.dto.ImageObject;
 import com.root14.barcodeservice.entity.BarcodeEntity;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
 import com.root14.barcodeservice.repository.BarcodeRepository;
+import com.root14.barcodeservice.repository.StoredBarcode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
 import java.time.Instant;
-import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -39,65 +44,242 @@ import java.util.UUID;
  */
 @Service
 public class BarcodeService {
-    private final ApplicationContext applicationContext;
+    // 1-bit PNGs and merged vector paths are small; most fit without the buffer having to grow.
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+    /** The default limit on the size of an uploaded image, in bytes. */
+    public static final long DEFAULT_MAX_READ_BYTES = 20 * 1024 * 1024;
 
-    // Removed from Spring IoC, they are created once and reused.
-    private final BarcodeGenerator barcodeGenerator = new BarcodeGenerator();
-    private final BarcodeReader barcodeReader = new BarcodeReader();
-    private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    private final SymbologyRegistry symbologyRegistry;
+
+    // Configured once in ReaderConfig and shared. The reader keeps no state between calls.
+    private final BarcodeReader barcodeReader;
 
     private final BarcodeRepository barcodeRepository;
+    private final BarcodeWriteBehind writeBehind;
+    private final ImageCache imageCache;
+    private final MatrixCache matrixCache;
+    private final DecodeCache decodeCache;
+    private final StoredBarcodeCache storedBarcodeCache;
 
     @Value("${spring.profiles.active}")
     private String profile;
 
+    // checked before an upload is buffered, so an oversized one is never held in memory
+    @Value("${barcode.read.max-bytes:" + DEFAULT_MAX_READ_BYTES + "}")
+    private long maxReadBytes = DEFAULT_MAX_READ_BYTES;
+
     /**
      * Constructs a {@code BarcodeService} instance with optional access to the {@link BarcodeRepository}
-     * and access to the Spring {@link ApplicationContext}.
+     * and the {@link SymbologyRegistry} resolving barcode types and output formats.
      *
      * <p>This constructor allows the service to be initialized even in environments where the
      * {@code BarcodeRepository} is not available—e.g., when the application is running in a profile
      * that does not connect to a database.</p>
      *
-     * @param applicationContext the Spring application context, used for accessing beans and application metadata
+     * @param symbologyRegistry the registry of symbologies and output formats, with their writers already resolved
      * @param barcodeRepository the repository used for barcode data access; may be {@code null} in non-database profiles
+     * @param imageCache the cache of generated images
+     * @param matrixCache the cache of encoded barcodes at native module resolution
+     * @param barcodeReader the reader decoding uploaded images
+     * @param decodeCache the cache of decode outcomes of recently uploaded images
+     * @param storedBarcodeCache the cache of recently fetched stored barcodes
+     * @param writeBehind the queue writing stored barcodes in the background; {@code null} unless write-behind is enabled
      */
     @Autowired
-    public BarcodeService(ApplicationContext applicationContext, @Autowired(required = false) BarcodeRepository barcodeRepository) {
-        this.applicationContext = applicationContext;
+    public BarcodeService(SymbologyRegistry symbologyRegistry, @Autowired(required = false) BarcodeRepository barcodeRepository,
+                          ImageCache imageCache, MatrixCache matrixCache, BarcodeReader barcodeReader, DecodeCache decodeCache,
+                          StoredBarcodeCache storedBarcodeCache, @Autowired(required = false) BarcodeWriteBehind writeBehind) {
+        this.symbologyRegistry = symbologyRegistry;
         this.barcodeRepository = barcodeRepository;
+        this.imageCache = imageCache;
+        this.matrixCache = matrixCache;
+        this.barcodeReader = barcodeReader;
+        this.decodeCache = decodeCache;
+        this.storedBarcodeCache = storedBarcodeCache;
+        this.writeBehind = writeBehind;
+        symbologyRegistry.addReplacementListener(this::evictReplaced);
+    }
+
+    /**
+     * Drops everything cached from a symbology or output format that was replaced in the registry. Stored barcodes
+     * are cached without their spec and are all dropped.
+     */
+    private void evictReplaced(Set<String> symbologyKeys, Set<String> formats) {
+        imageCache.invalidateIf(spec -> symbologyKeys.contains(spec.type().toLowerCase(Locale.ROOT))
+                || formats.contains(spec.format().toLowerCase(Locale.ROOT)));
+        matrixCache.invalidateIf(key -> symbologyKeys.contains(key.type().toLowerCase(Locale.ROOT)));
+        storedBarcodeCache.invalidateAll();
     }
 
     /**
      * Reads barcode data from an uploaded image file.
+     * Repeated uploads of the same bytes are answered from the {@link DecodeCache}.
      *
      * @param data  the multipart file containing the barcode image
-     * @param hints decoding hints for barcode recognition
+     * @param profile the decoding profile selecting the hints for barcode recognition
      * @return the decoded barcode result
      * @throws IOException       if reading the file fails
      * @throws NotFoundException if no barcode is found in the image
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or the reader's pixel limit
+     */
+    public Result read(MultipartFile data, DecodeProfile profile) throws IOException, NotFoundException {
+        checkReadBytes(data.getSize());
+        return read(data.getBytes(), profile);
+    }
+
+    /**
+     * Reads barcode data from an image sent as a raw request body.
+     * The body is read into a single array of its announced length, which the image is then decoded from directly.
+     *
+     * @param body    the image bytes
+     * @param length  the number of bytes in the body, or {@code -1} if unknown
+     * @param profile the decoding profile selecting the hints for barcode recognition
+     * @return the decoded barcode result
+     * @throws IOException       if reading the body fails
+     * @throws NotFoundException if no barcode is found in the image
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or the reader's pixel limit
      */
-    public Result read(MultipartFile data, Map<DecodeHintType, Object> hints) throws IOException, NotFoundException {
-        return barcodeReader.read(data.getInputStream(), hints);
+    public Result read(InputStream body, long length, DecodeProfile profile) throws IOException, NotFoundException {
+        return read(readBody(body, length), profile);
     }
 
     /**
-     * Reads barcode data from a Base64-encoded image string.
+     * Reads barcode data from raw image bytes.
+     * Repeated uploads of the same bytes are answered from the {@link DecodeCache}.
      *
-     * @param data  the Base64-encoded image data
-     * @param hints decoding hints for barcode recognition
+     * @param image   the image bytes
+     * @param profile the decoding profile selecting the hints for barcode recognition
      * @return the decoded barcode result
-     * @throws IOException       if reading the data fails
+     * @throws IOException       if reading the image fails
      * @throws NotFoundException if no barcode is found in the image
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or the reader's pixel limit
      */
-    public Result read(String data, Map<DecodeHintType, Object> hints) throws IOException, NotFoundException {
-        byte[] decoded = Base64.getDecoder().decode(data.getBytes(StandardCharsets.UTF_8));
-        InputStream inputStream = new ByteArrayInputStream(decoded);
-        return barcodeReader.read(inputStream, hints);
+    public Result read(byte[] image, DecodeProfile profile) throws IOException, NotFoundException {
+        checkReadBytes(image.length);
+        return decodeCache.decode(image, profile, () -> barcodeReader.read(image, profile));
     }
 
     /**
-     * Generates a barcode image from the given data and saves it if a name is provided.
+     * Reads every barcode in an uploaded image file in one pass.
+     *
+     * @param data    the multipart file containing the barcode image
+     * @param profile the decoding profile selecting the hints for barcode recognition
+     * @return the decoded barcode results, never empty
+     * @throws IOException       if reading the file fails
+     * @throws NotFoundException if no barcode is found in the image
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or the reader's pixel limit
+     */
+    public List<Result> readAll(MultipartFile data, DecodeProfile profile) throws IOException, NotFoundException {
+        checkReadBytes(data.getSize());
+        return barcodeReader.readAll(data.getBytes(), profile);
+    }
+
+    /**
+     * Reads every barcode in raw image bytes in one pass.
+     *
+     * @param image   the image bytes
+     * @param profile the decoding profile selecting the hints for barcode recognition
+     * @return the decoded barcode results, never empty
+     * @throws IOException       if reading the image fails
+     * @throws NotFoundException if no barcode is found in the image
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or the reader's pixel limit
+     */
+    public List<Result> readAll(byte[] image, DecodeProfile profile) throws IOException, NotFoundException {
+        checkReadBytes(image.length);
+        return barcodeReader.readAll(image, profile);
+    }
+
+    /**
+     * Reads every barcode in an image sent as a raw request body in one pass.
+     *
+     * @param body    the image bytes
+     * @param length  the number of bytes in the body, or {@code -1} if unknown
+     * @param profile the decoding profile selecting the hints for barcode recognition
+     * @return the decoded barcode results, never empty
+     * @throws IOException       if reading the body fails
+     * @throws NotFoundException if no barcode is found in the image
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or the reader's pixel limit
+     */
+    public List<Result> readAll(InputStream body, long length, DecodeProfile profile) throws IOException, NotFoundException {
+        return barcodeReader.readAll(readBody(body, length), profile);
+    }
+
+    /**
+     * Reads the barcodes on every page of an uploaded multi-page image, e.g. a scanned TIFF.
+     *
+     * @param data       the multipart file containing the image
+     * @param profile    the decoding profile selecting the hints for barcode recognition
+     * @param maxSymbols the number of barcodes after which reading stops; {@code 0} reads every page
+     * @return the decoded pages in page order, see {@link BarcodeReader#readPages}
+     * @throws IOException       if reading the file fails
+     * @throws NotFoundException if no barcode is found on any page
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or a page the reader's pixel limit
+     */
+    public List<PageResult> readPages(MultipartFile data, DecodeProfile profile, int maxSymbols) throws IOException, NotFoundException {
+        checkReadBytes(data.getSize());
+        return barcodeReader.readPages(data.getBytes(), profile, maxSymbols);
+    }
+
+    /**
+     * Reads the barcodes on every page of a multi-page image given as raw bytes.
+     *
+     * @param image      the image bytes
+     * @param profile    the decoding profile selecting the hints for barcode recognition
+     * @param maxSymbols the number of barcodes after which reading stops; {@code 0} reads every page
+     * @return the decoded pages in page order, see {@link BarcodeReader#readPages}
+     * @throws IOException       if reading the image fails
+     * @throws NotFoundException if no barcode is found on any page
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or a page the reader's pixel limit
+     */
+    public List<PageResult> readPages(byte[] image, DecodeProfile profile, int maxSymbols) throws IOException, NotFoundException {
+        checkReadBytes(image.length);
+        return barcodeReader.readPages(image, profile, maxSymbols);
+    }
+
+    /**
+     * Reads the barcodes on every page of a multi-page image sent as a raw request body.
+     *
+     * @param body       the image bytes
+     * @param length     the number of bytes in the body, or {@code -1} if unknown
+     * @param profile    the decoding profile selecting the hints for barcode recognition
+     * @param maxSymbols the number of barcodes after which reading stops; {@code 0} reads every page
+     * @return the decoded pages in page order, see {@link BarcodeReader#readPages}
+     * @throws IOException       if reading the body fails
+     * @throws NotFoundException if no barcode is found on any page
+     * @throws ImageTooLargeException if the image exceeds {@code barcode.read.max-bytes} or a page the reader's pixel limit
+     */
+    public List<PageResult> readPages(InputStream body, long length, DecodeProfile profile, int maxSymbols) throws IOException, NotFoundException {
+        return barcodeReader.readPages(readBody(body, length), profile, maxSymbols);
+    }
+
+    /**
+     * Reads a request body of known length straight into an array of that size; growing a buffer would briefly
+     * hold the image twice.
+     */
+    private byte[] readBody(InputStream body, long length) throws IOException {
+        if (length < 0) {
+            // read one byte past the limit to tell whether it was exceeded
+            byte[] image = body.readNBytes((int) Math.min(maxReadBytes + 1, Integer.MAX_VALUE - 8));
+            checkReadBytes(image.length);
+            return image;
+        }
+        checkReadBytes(length);
+        byte[] image = new byte[(int) length];
+        int read = body.readNBytes(image, 0, image.length);
+        if (read < image.length) {
+            throw new EOFException("Request body ended after " + read + " of " + length + " bytes.");
+        }
+        return image;
+    }
+
+    private void checkReadBytes(long bytes) {
+        if (bytes > maxReadBytes) {
+            throw new ImageTooLargeException("Image of " + bytes + " bytes exceeds the limit of " + maxReadBytes + " bytes.");
+        }
+    }
+
+    /**
+     * Generates a PNG barcode image from the given data and saves it if a name is provided.
      *
      * @param type   the barcode type (e.g., "QR", "CODE_128")
      * @param data   the data to encode in the barcode
@@ -107,38 +289,164 @@ public class BarcodeService {
      * @return an {@link Optional} containing the generated {@link ImageObject}, or empty if generation fails
      * @throws WriterException if encoding the barcode fails
      * @throws IOException     if writing the image fails
+     * @see #generate(String, String, int, int, String, boolean)
      */
     public Optional<ImageObject> generate(String type, String data, int width, int height, boolean store) throws WriterException, IOException {
-        BarcodeType barcodeType = BarcodeType.fromKey(type);
-
-        barcodeGenerator.setBarcodeFormat(barcodeType.getFormat());
-        barcodeGenerator.setWriter(applicationContext.getBean(barcodeType.getWriterClass()));
+        return generate(type, data, width, height, OutputFormat.PNG.format(), store);
+    }
 
-        BufferedImage generated = barcodeGenerator.generate(data, width, height);
+    /**
+     * Generates a barcode image in the given output format from the given data and saves it if a name is provided.
+     *
+     * <p>This method is safe to call concurrently. Every call works on its own {@link BarcodeGenerator}
+     * and output buffer; the only shared objects are the ZXing {@link Writer} instances of the
+     * {@link SymbologyRegistry}, which are stateless.</p>
+     *
+     * <p>Images are looked up in the {@link ImageCache} first, so repeated requests for the same
+     * render spec skip encoding entirely. Stored barcodes are still persisted on a cache hit.
+     * Only the {@link RenderSpec} is persisted, never the image; {@link #findBarcode} renders it again.
+     * A spec is persisted once: storing it again returns the UUID and creation time of the existing row.
+     * With {@link BarcodeWriteBehind} enabled, new rows are queued and written in the background.</p>
+     *
+     * <p>On an image cache miss the barcode is encoded once at native module resolution and that matrix is
+     * kept in the {@link MatrixCache}, so other sizes and formats of the same data skip encoding as well.
+     * Raster formats are rendered from the matrix scaled to the requested size by {@link ModuleScaler}.
+     * Vector formats are rendered from the native matrix and scaled by the renderer, so no
+     * {@code BufferedImage} is involved in any format.</p>
+     *
+     * @param type   the barcode type (e.g., "QR", "CODE_128")
+     * @param data   the data to encode in the barcode
+     * @param width  the width of the generated image
+     * @param height the height of the generated image
+     * @param format the output format (e.g., "png", "svg", "pdf")
+     * @param store  to persist the barcode in the database; only supported for PNG
+     * @return an {@link Optional} containing the generated {@link ImageObject}, or empty if generation fails
+     * @throws WriterException if encoding the barcode fails
+     * @throws IOException     if writing the image fails
+     * @throws IllegalArgumentException if the type or format is unknown, the size is negative, or a non-PNG image
+     *                                  should be stored
+     * @see PngMatrixWriter
+     * @see SvgMatrixWriter
+     * @see PdfMatrixWriter
+     */
+    public Optional<ImageObject> generate(String type, String data, int width, int height, String format, boolean store) throws WriterException, IOException {
+        if (width < 0 || height < 0) {
+            // the writers used to reject this, but they now always encode at module resolution
+            throw new IllegalArgumentException("Requested dimensions can't be negative: " + width + "x" + height);
+        }
+        Symbology symbology = symbologyRegistry.symbology(type);
+        MatrixRenderer renderer = symbologyRegistry.renderer(format);
+        boolean persist = store && profile.equals("postgres");
+        if (persist && !OutputFormat.PNG.contentType().equals(renderer.contentType())) {
+            // stored barcodes are served back as image/png by /getBarcode
+            throw new IllegalArgumentException("Only png barcodes can be stored.");
+        }
+        RenderSpec spec = new RenderSpec(symbology.key(), data, width, height, renderer.format());
 
-        // Clear the previous stream
-        byteArrayOutputStream.reset();
-        ImageIO.write(generated, "png", byteArrayOutputStream);
+        byte[] image = image(symbology, spec, renderer);
 
         // Save to database if a name is provided
         // Save only postgres mode/profile
-        if (store && profile.equals("postgres")) {
-            BarcodeEntity barcodeEntity = new BarcodeEntity(byteArrayOutputStream.toByteArray());
-            BarcodeEntity storedEntity = barcodeRepository.save(barcodeEntity);
-            return Optional.of(new ImageObject(storedEntity.getId().toString(), byteArrayOutputStream.toByteArray(), storedEntity.getCreatedAt()));
+        if (persist) {
+            BarcodeEntity storedEntity = store(spec);
+            return Optional.of(new ImageObject(storedEntity.getId().toString(), image, storedEntity.getCreatedAt()));
         } else {
-            return Optional.of(new ImageObject(null, byteArrayOutputStream.toByteArray(), Instant.now()));
+            return Optional.of(new ImageObject(null, image, Instant.now()));
+        }
+    }
+
+    /**
+     * Returns the row of the spec, inserting or queueing it if the spec was not stored before.
+     */
+    private BarcodeEntity store(RenderSpec spec) throws IOException {
+        byte[] specHash = BarcodeEntity.hash(spec);
+        Optional<BarcodeEntity> existing = writeBehind != null ? writeBehind.findBySpecHash(specHash) : Optional.empty();
+        if (existing.isEmpty()) {
+            existing = barcodeRepository.findBySpecHash(specHash);
+        }
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (writeBehind != null) {
+            try {
+                return writeBehind.enqueue(spec);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while storing the barcode.");
+            }
+        }
+        try {
+            return barcodeRepository.save(new BarcodeEntity(spec));
+        } catch (DataIntegrityViolationException e) {
+            // another request stored the same spec in between, the unique index rejected ours
+            return barcodeRepository.findBySpecHash(specHash).orElseThrow(() -> e);
+        }
+    }
+
+    private byte[] image(Symbology symbology, RenderSpec spec, MatrixRenderer renderer) throws WriterException, IOException {
+        byte[] image = imageCache.get(spec);
+        if (image == null) {
+            image = render(symbology, spec, renderer);
+            imageCache.put(spec, image);
         }
+        return image;
+    }
+
+    private byte[] render(Symbology symbology, RenderSpec spec, MatrixRenderer renderer) throws WriterException, IOException {
+        BitMatrix modules = encode(symbology, spec.data(), null);
+        BitMatrix bitMatrix = renderer.isVector() ? modules : ModuleScaler.scale(modules, spec.width(), spec.height());
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        renderer.render(bitMatrix, spec.width(), spec.height(), null, byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private BitMatrix encode(Symbology symbology, String data, Map<EncodeHintType, Object> hints) throws WriterException {
+        MatrixKey key = new MatrixKey(symbology.key(), data, hints);
+        BitMatrix modules = matrixCache.get(key);
+        if (modules == null) {
+            // Per-call encoder context, never shared between requests.
+            BarcodeGenerator barcodeGenerator = new BarcodeGenerator()
+                    .setBarcodeFormat(symbology.format())
+                    .setWriter(symbology.writer());
+            modules = barcodeGenerator.encode(data, 0, 0, key.hints());
+            matrixCache.put(key, modules);
+        }
+        return modules;
     }
 
     /**
      * Retrieves a previously stored barcode image by UUID.
      *
+     * <p>The image is rendered from the stored {@link RenderSpec} through the {@link ImageCache}, so frequently
+     * fetched barcodes are not rendered again. Barcodes stored as images by earlier versions are returned as
+     * stored. Barcodes still queued in the {@link BarcodeWriteBehind} are served from the queue. Stored barcodes
+     * never change, so recently fetched ones are answered from the {@link StoredBarcodeCache} without a query.</p>
+     *
      * @param uuid the unique identifier of the barcode
      * @return an {@link Optional} containing the found {@link ImageObject}, or empty if not found
+     * @throws WriterException if encoding the barcode fails
+     * @throws IOException     if writing the image fails
      */
-    public Optional<ImageObject> findBarcode(String uuid) {
-        Optional<BarcodeEntity> barcodeEntityOptional = barcodeRepository.findById(UUID.fromString(uuid));
-        return barcodeEntityOptional.map(BarcodeEntity::getAsDto);
+    public Optional<ImageObject> findBarcode(String uuid) throws WriterException, IOException {
+        UUID id = UUID.fromString(uuid);
+        ImageObject cached = storedBarcodeCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<StoredBarcode> storedBarcode = writeBehind != null ? writeBehind.find(id).map(StoredBarcode::of) : Optional.empty();
+        if (storedBarcode.isEmpty()) {
+            storedBarcode = barcodeRepository.findStoredById(id);
+        }
+        if (storedBarcode.isEmpty()) {
+            return Optional.empty();
+        }
+        StoredBarcode stored = storedBarcode.get();
+        RenderSpec spec = stored.renderSpec();
+        byte[] image = spec == null ? stored.barcode()
+                : image(symbologyRegistry.symbology(spec.type()), spec, symbologyRegistry.renderer(spec.format()));
+        ImageObject found = new ImageObject(stored.id().toString(), image, stored.createdAt());
+        storedBarcodeCache.put(id, found);
+        return Optional.of(found);
     }
 }
@@ -0,0 +1,310 @@
+package com.root14.barcodeservice.service;
+
+import com.root14.barcodeservice.core.RenderSpec;
+import com.root14.barcodeservice.entity.BarcodeEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes stored barcodes to the database from a background thread, in JDBC batches.
+ *
+ * <p>With write-behind, {@link BarcodeService} returns the UUID and creation time assigned by {@link BarcodeEntity}
+ * as soon as the row is queued here, instead of waiting for a transaction of its own. A single writer thread
+ * drains the queue and inserts up to {@code barcode.store.write-behind.batch-size} rows per statement batch and
+ * transaction. Queued rows are visible through {@link #find} and {@link #findBySpecHash} until they are written, so
+ * {@code /getBarcode} serves a UUID as soon as it was returned.</p>
+ *
+ * <p>The queue holds at most {@code barcode.store.write-behind.capacity} rows. When it is full, {@link #enqueue}
+ * waits up to {@code barcode.store.write-behind.offer-timeout-ms} for room and then writes the row on the calling
+ * thread, so a database that cannot keep up slows requests down instead of filling the heap. A batch failing for a
+ * transient reason, like a lost connection or a timeout, is retried until it is written. A batch failing for any
+ * other reason is split in halves and written again, until the rows that cannot be written are isolated and
+ * dropped with an error in the log. On shutdown, new rows are written synchronously and the queue is flushed before the
+ * data source is closed.</p>
+ *
+ * <p>Rows are inserted with {@code ON CONFLICT DO NOTHING}. A spec is only queued once per instance, but it may be
+ * stored by another instance, or written just before it was queued here, at the same moment. The UUID returned for
+ * it must keep working, so rows the insert skipped are then stored again as aliases: the same spec under their own
+ * UUID, without a {@code spec_hash}, so the spec still resolves to the row that won.</p>
+ *
+ * <p>Enabled with {@code barcode.store.write-behind.enabled=true} in the {@code postgres} profile.</p>
+ */
+@Service
+@Profile("postgres")
+@ConditionalOnProperty(name = "barcode.store.write-behind.enabled", havingValue = "true")
+public class BarcodeWriteBehind {
+    private static final Logger log = LoggerFactory.getLogger(BarcodeWriteBehind.class);
+    private static final String INSERT = "INSERT INTO barcodes (id, created_at, type, data, width, height, spec_hash)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_ALIAS = "INSERT INTO barcodes (id, created_at, type, data, width, height)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_EXISTING = "SELECT id FROM barcodes WHERE id = ANY(?)";
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<BarcodeEntity> queue;
+    private final Map<UUID, BarcodeEntity> pendingById = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, BarcodeEntity> pendingBySpecHash = new ConcurrentHashMap<>();
+    private final Thread writer = Thread.ofPlatform().name("barcode-write-behind").daemon().unstarted(this::run);
+
+    @Value("${barcode.store.write-behind.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${barcode.store.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMillis = 200;
+
+    @Value("${barcode.store.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMillis = 100;
+
+    @Value("${barcode.store.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMillis = 30_000;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs the write-behind queue. The writer thread is started once the bean is initialized.
+     *
+     * @param jdbcTemplate       the template executing the batch inserts
+     * @param transactionManager the transaction manager wrapping each batch in one transaction
+     * @param capacity           the maximum number of queued rows
+     */
+    @Autowired
+    public BarcodeWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${barcode.store.write-behind.capacity:10000}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Queues a new barcode for writing. If the same spec is already queued, the queued row is returned instead.
+     * Blocks for at most the offer timeout; when the queue is still full, or shutting down, the row is written
+     * before this method returns.
+     *
+     * @param spec the spec of the barcode
+     * @return the queued or written row, carrying its UUID and creation time
+     * @throws InterruptedException if the calling thread is interrupted while waiting for room in the queue
+     */
+    public BarcodeEntity enqueue(RenderSpec spec) throws InterruptedException {
+        BarcodeEntity entity = new BarcodeEntity(spec);
+        BarcodeEntity queued = pendingBySpecHash.putIfAbsent(ByteBuffer.wrap(entity.getSpecHash()), entity);
+        if (queued != null) {
+            return queued;
+        }
+        pendingById.put(entity.getId(), entity);
+        if (closed || !queue.offer(entity, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            // backpressure: the caller pays for the write when the writer falls behind
+            try {
+                write(List.of(entity));
+            } finally {
+                forget(List.of(entity));
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Returns a barcode that is queued but not written yet.
+     *
+     * @param id the UUID of the barcode
+     * @return the queued row, or empty if it was written already or never queued
+     */
+    public Optional<BarcodeEntity> find(UUID id) {
+        return Optional.ofNullable(pendingById.get(id));
+    }
+
+    /**
+     * Returns the queued barcode of a spec that is not written yet.
+     *
+     * @param specHash the hash of the spec, see {@link BarcodeEntity#hash}
+     * @return the queued row, or empty if none is queued
+     */
+    public Optional<BarcodeEntity> findBySpecHash(byte[] specHash) {
+        return Optional.ofNullable(pendingBySpecHash.get(ByteBuffer.wrap(specHash)));
+    }
+
+    /**
+     * Returns the number of rows waiting to be written.
+     *
+     * @return the number of queued rows
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Stops queueing and waits for the writer to flush everything queued so far.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.join(shutdownTimeoutMillis);
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.error("Write-behind queue not flushed within {} ms, {} barcodes were not stored", shutdownTimeoutMillis, queue.size());
+            return;
+        }
+        // rows offered while the writer was exiting
+        List<BarcodeEntity> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+            forget(rest);
+        }
+    }
+
+    private void run() {
+        List<BarcodeEntity> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                BarcodeEntity first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeUntilDone(batch);
+                forget(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeUntilDone(List<BarcodeEntity> batch) throws InterruptedException {
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    writeHalves(batch, e);
+                    return;
+                }
+                // the rows stay visible through find() while the database is unavailable
+                log.warn("Writing {} barcodes failed, retrying in {} ms", batch.size(), RETRY_DELAY_MS, e);
+                Thread.sleep(RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch that failed for good in halves, so one bad row does not take the others with it.
+     */
+    private void writeHalves(List<BarcodeEntity> batch, RuntimeException failure) throws InterruptedException {
+        if (batch.size() == 1) {
+            log.error("Barcode {} cannot be stored and is dropped", batch.get(0).getId(), failure);
+            return;
+        }
+        log.warn("Writing {} barcodes failed, writing them in halves", batch.size(), failure);
+        int half = batch.size() / 2;
+        writeUntilDone(batch.subList(0, half));
+        writeUntilDone(batch.subList(half, batch.size()));
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private void write(List<BarcodeEntity> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, entity) -> {
+                setSpec(ps, entity);
+                ps.setBytes(7, entity.getSpecHash());
+            });
+            List<BarcodeEntity> skipped = skipped(batch, counts);
+            if (!skipped.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ALIAS, skipped, skipped.size(), BarcodeWriteBehind::setSpec);
+                log.debug("Stored {} barcodes as aliases, their specs were stored concurrently", skipped.size());
+            }
+        });
+    }
+
+    /**
+     * Returns the rows the insert skipped because their spec was stored already. Rewritten batch inserts do not
+     * report counts per row, so rows not reported as inserted are looked up by their ID.
+     */
+    private List<BarcodeEntity> skipped(List<BarcodeEntity> batch, int[][] counts) {
+        List<BarcodeEntity> unconfirmed = new ArrayList<>();
+        int row = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count != 1) {
+                    unconfirmed.add(batch.get(row));
+                }
+                row++;
+            }
+        }
+        unconfirmed.addAll(batch.subList(row, batch.size()));
+        if (unconfirmed.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> existing = new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_EXISTING);
+            ps.setArray(1, con.createArrayOf("uuid", unconfirmed.stream().map(BarcodeEntity::getId).toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+        return unconfirmed.stream().filter(entity -> !existing.contains(entity.getId())).toList();
+    }
+
+    private static void setSpec(PreparedStatement ps, BarcodeEntity entity) throws SQLException {
+        RenderSpec spec = entity.getRenderSpec();
+        ps.setObject(1, entity.getId());
+        ps.setObject(2, OffsetDateTime.ofInstant(entity.getCreatedAt(), ZoneOffset.UTC));
+        ps.setString(3, spec.type());
+        ps.setString(4, spec.data());
+        ps.setInt(5, spec.width());
+        ps.setInt(6, spec.height());
+    }
+
+    private void forget(List<BarcodeEntity> written) {
+        for (BarcodeEntity entity : written) {
+            pendingById.remove(entity.getId());
+            pendingBySpecHash.remove(ByteBuffer.wrap(entity.getSpecHash()));
+        }
+    }
+}
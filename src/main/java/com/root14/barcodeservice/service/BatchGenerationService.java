@@ -0,0 +1,148 @@
+package com.root14.barcodeservice.service;
+
+import com.google.zxing.WriterException;
+import com.root14.barcodeservice.dto.BatchItemResult;
+import com.root14.barcodeservice.dto.GenerateSpec;
+import com.root14.barcodeservice.dto.ImageObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Service class for generating many barcodes in one request.
+ *
+ * <p>Items are rendered in parallel on the dedicated {@code barcodeRenderPool} through
+ * {@link BarcodeService#generate}, so they share its image cache. Results are handed to the
+ * caller in completion order, not request order, as soon as each one is ready. Only a bounded
+ * number of items is in flight at any time, which keeps memory flat for batches of tens of
+ * thousands of labels.</p>
+ *
+ * <p>A failing item is reported as a {@link BatchItemResult#failure} and does not abort the batch.</p>
+ */
+@Service
+public class BatchGenerationService {
+    /** Default image width, same as {@code GET /generate}. */
+    public static final int DEFAULT_WIDTH = 400;
+    /** Default image height, same as {@code GET /generate}. */
+    public static final int DEFAULT_HEIGHT = 400;
+
+    private final BarcodeService barcodeService;
+    private final ForkJoinPool renderPool;
+
+    @Value("${barcode.batch.max-items:50000}")
+    private int maxItems;
+
+    /**
+     * Callback receiving batch results on the calling thread.
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        /**
+         * Accepts one finished item.
+         *
+         * @param result the result of the item
+         * @throws IOException if the result cannot be written, which stops the batch
+         */
+        void accept(BatchItemResult result) throws IOException;
+    }
+
+    /**
+     * Constructs a {@code BatchGenerationService}.
+     *
+     * @param barcodeService the service used to generate each item
+     * @param renderPool     the work-stealing pool the items are rendered on
+     */
+    @Autowired
+    public BatchGenerationService(BarcodeService barcodeService, @Qualifier("barcodeRenderPool") ForkJoinPool renderPool) {
+        this.barcodeService = barcodeService;
+        this.renderPool = renderPool;
+    }
+
+    /**
+     * Generates all given barcodes and passes each result to the sink as soon as it completes.
+     * This method blocks until every item has been delivered.
+     *
+     * @param specs the barcodes to generate
+     * @param store to persist the generated barcodes in the database
+     * @param sink  the callback receiving the results, invoked on the calling thread
+     * @throws IOException              if the sink fails or the calling thread is interrupted
+     * @throws IllegalArgumentException if the batch is empty or larger than {@code barcode.batch.max-items}
+     */
+    public void generate(List<GenerateSpec> specs, boolean store, ResultSink sink) throws IOException {
+        validate(specs);
+
+        CompletionService<BatchItemResult> completionService = new ExecutorCompletionService<>(renderPool);
+        int maxInFlight = renderPool.getParallelism() * 4;
+        int next = 0;
+        int inFlight = 0;
+
+        try {
+            while (next < specs.size() || inFlight > 0) {
+                while (next < specs.size() && inFlight < maxInFlight) {
+                    int index = next++;
+                    GenerateSpec spec = specs.get(index);
+                    completionService.submit(() -> generateItem(index, spec, store));
+                    inFlight++;
+                }
+                Future<BatchItemResult> done = completionService.take();
+                inFlight--;
+                sink.accept(done.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch generation was interrupted.");
+        } catch (ExecutionException e) {
+            // generateItem catches everything, so this only happens on errors like OutOfMemoryError
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Checks the size of a batch. Callers streaming the results should call this before the response is committed,
+     * so an invalid batch is still answered with a plain error.
+     *
+     * @param specs the barcodes to generate
+     * @throws IllegalArgumentException if the batch is empty or larger than {@code barcode.batch.max-items}
+     */
+    public void validate(List<GenerateSpec> specs) {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item.");
+        }
+        if (specs.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxItems + " items.");
+        }
+    }
+
+    private BatchItemResult generateItem(int index, GenerateSpec spec, boolean store) {
+        try {
+            if (spec == null || spec.type() == null || spec.data() == null) {
+                return BatchItemResult.failure(index, "INVALID_ARGUMENT", "Both type and data are required.");
+            }
+            int width = spec.width() != null ? spec.width() : DEFAULT_WIDTH;
+            int height = spec.height() != null ? spec.height() : DEFAULT_HEIGHT;
+
+            Optional<ImageObject> image = barcodeService.generate(spec.type(), spec.data(), width, height, store);
+            return image.map(imageObject -> BatchItemResult.success(index, imageObject))
+                    .orElseGet(() -> BatchItemResult.failure(index, "NOT_FOUND", "Barcode could not be generated."));
+        } catch (WriterException e) {
+            return BatchItemResult.failure(index, "BARCODE_ENCODING_ERROR", "Error encoding barcode data: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return BatchItemResult.failure(index, "INVALID_ARGUMENT", e.getMessage());
+        } catch (IOException e) {
+            return BatchItemResult.failure(index, "IO_ERROR", "An I/O error occurred during processing.");
+        } catch (RuntimeException e) {
+            return BatchItemResult.failure(index, "UNEXPECTED_ERROR", "An unexpected server error occurred.");
+        }
+    }
+}
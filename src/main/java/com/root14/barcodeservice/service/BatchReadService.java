@@ -0,0 +1,207 @@
+package com.root14.barcodeservice.service;
+
+import com.google.zxing.NotFoundException;
+import com.root14.barcodeservice.core.BarcodeResult;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.dto.BatchReadResult;
+import com.root14.barcodeservice.exception.DecodeTimeoutException;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service class for reading the barcodes of many images in one request.
+ *
+ * <p>Entries are pulled from an {@link EntrySource} one at a time, on the calling thread, and decoded in parallel
+ * on the {@code barcodeRenderPool} through {@link BarcodeService#read(byte[], DecodeProfile)}. The next entry is only
+ * read once a slot is free, so at most a bounded number of images is held in memory at any time, however large the
+ * upload. Running the entries on the batch pool rather than on {@code barcodeDecodePool} keeps them from waiting on
+ * the tiles and fallback strategies they hand to that pool. Results are handed to the caller in completion order,
+ * not upload order.</p>
+ *
+ * <p>An entry that cannot be decoded is reported as a {@link BatchReadResult#failure} and does not abort the
+ * batch. Only failing to read the upload itself does. Entries above {@code barcode.read.max-bytes} are skipped
+ * without being buffered and reported as {@code IMAGE_TOO_LARGE}, which keeps a ZIP bomb from filling the heap.</p>
+ */
+@Service
+public class BatchReadService {
+    private final BarcodeService barcodeService;
+    private final ForkJoinPool pool;
+
+    @Value("${barcode.read.max-bytes:" + BarcodeService.DEFAULT_MAX_READ_BYTES + "}")
+    private long maxEntryBytes = BarcodeService.DEFAULT_MAX_READ_BYTES;
+
+    /**
+     * One image of a batch read request.
+     *
+     * @param name the file name of the entry, or {@code null} if unknown
+     * @param data the image bytes, or {@code null} if the entry exceeds the size limit and was skipped
+     */
+    public record Entry(String name, byte[] data) {
+    }
+
+    /**
+     * Supplies the entries of a batch, reading them from the upload on demand.
+     */
+    @FunctionalInterface
+    public interface EntrySource {
+        /**
+         * Reads the next entry.
+         *
+         * @return the next entry, or {@code null} once all entries were read
+         * @throws IOException if the upload cannot be read, which stops the batch
+         */
+        Entry next() throws IOException;
+    }
+
+    /**
+     * Callback receiving batch results on the calling thread.
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        /**
+         * Accepts one finished entry.
+         *
+         * @param result the result of the entry
+         * @throws IOException if the result cannot be written, which stops the batch
+         */
+        void accept(BatchReadResult result) throws IOException;
+    }
+
+    /**
+     * Constructs a {@code BatchReadService}.
+     *
+     * @param barcodeService the service used to read each entry
+     * @param pool           the work-stealing pool the entries are decoded on
+     */
+    @Autowired
+    public BatchReadService(BarcodeService barcodeService, @Qualifier("barcodeRenderPool") ForkJoinPool pool) {
+        this.barcodeService = barcodeService;
+        this.pool = pool;
+    }
+
+    /**
+     * Reads all entries of the source and passes each result to the sink as soon as it completes.
+     * This method blocks until every entry has been delivered.
+     *
+     * @param source  the entries to read
+     * @param profile the decoding profile applied to every entry
+     * @param sink    the callback receiving the results, invoked on the calling thread
+     * @throws IOException if the source or the sink fails, or the calling thread is interrupted
+     */
+    public void read(EntrySource source, DecodeProfile profile, ResultSink sink) throws IOException {
+        CompletionService<BatchReadResult> completionService = new ExecutorCompletionService<>(pool);
+        int maxInFlight = pool.getParallelism() * 4;
+        int next = 0;
+        int inFlight = 0;
+        boolean exhausted = false;
+
+        try {
+            while (!exhausted || inFlight > 0) {
+                while (!exhausted && inFlight < maxInFlight) {
+                    Entry entry = source.next();
+                    if (entry == null) {
+                        exhausted = true;
+                    } else {
+                        int index = next++;
+                        completionService.submit(() -> readEntry(index, entry, profile));
+                        inFlight++;
+                    }
+                }
+                if (inFlight > 0) {
+                    Future<BatchReadResult> done = completionService.take();
+                    inFlight--;
+                    sink.accept(done.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch read was interrupted.");
+        } catch (ExecutionException e) {
+            // readEntry catches everything, so this only happens on errors like OutOfMemoryError
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the files of a ZIP archive as they are read from the stream. Directories are skipped.
+     * The stream is not closed.
+     *
+     * @param in the ZIP archive
+     * @return the source of its entries
+     */
+    public EntrySource zipEntries(InputStream in) {
+        ZipInputStream zip = new ZipInputStream(in);
+        return () -> {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (entry.getSize() > maxEntryBytes) {
+                    return new Entry(entry.getName(), null);
+                }
+                // the size in the header may be missing or wrong, read one byte past the limit to be sure
+                byte[] data = zip.readNBytes((int) Math.min(maxEntryBytes + 1, Integer.MAX_VALUE - 8));
+                return new Entry(entry.getName(), data.length > maxEntryBytes ? null : data);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Returns the uploaded files of a multipart request, reading each one only when it is requested.
+     *
+     * @param files the uploaded files
+     * @return the source of their content
+     */
+    public EntrySource multipartEntries(List<MultipartFile> files) {
+        Iterator<MultipartFile> iterator = files.iterator();
+        return () -> {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            MultipartFile file = iterator.next();
+            return new Entry(file.getOriginalFilename(), file.getSize() > maxEntryBytes ? null : file.getBytes());
+        };
+    }
+
+    private BatchReadResult readEntry(int index, Entry entry, DecodeProfile profile) {
+        if (entry.data() == null) {
+            return BatchReadResult.failure(index, entry.name(), "IMAGE_TOO_LARGE",
+                    "Entry exceeds the limit of " + maxEntryBytes + " bytes.");
+        }
+        try {
+            BarcodeResult result = BarcodeResult.of(barcodeService.read(entry.data(), profile));
+            return BatchReadResult.success(index, entry.name(), result);
+        } catch (NotFoundException e) {
+            return BatchReadResult.failure(index, entry.name(), "BARCODE_NOT_FOUND", "Barcode not found in the provided data.");
+        } catch (DecodeTimeoutException e) {
+            return BatchReadResult.failure(index, entry.name(), "BARCODE_NOT_FOUND", "Barcode not found within the decode time budget.");
+        } catch (ImageTooLargeException e) {
+            return BatchReadResult.failure(index, entry.name(), "IMAGE_TOO_LARGE", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return BatchReadResult.failure(index, entry.name(), "INVALID_ARGUMENT", e.getMessage());
+        } catch (IOException e) {
+            return BatchReadResult.failure(index, entry.name(), "IO_ERROR", "An I/O error occurred during processing.");
+        } catch (RuntimeException e) {
+            return BatchReadResult.failure(index, entry.name(), "UNEXPECTED_ERROR", "An unexpected server error occurred.");
+        }
+    }
+}
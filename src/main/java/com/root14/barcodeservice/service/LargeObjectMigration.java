@@ -0,0 +1,155 @@
+package com.root14.barcodeservice.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Moves the images of barcodes stored by earlier versions out of PostgreSQL large objects, once, at startup.
+ *
+ * <p>Earlier versions mapped {@code barcodes.barcode} as a {@code @Lob}, which PostgreSQL stores as an {@code oid}
+ * pointing to a large object: every read took an extra lookup, and the large object was left behind when its row
+ * was deleted. The column is now {@code bytea}. If it is still an {@code oid} column, this runner converts it in place,
+ * copying every large object into its row, and then unlinks the large objects the rows referenced. Large objects of
+ * other tables are not touched.</p>
+ *
+ * <p>Large objects of rows deleted before the migration are not referenced by any row any more, so the conversion
+ * cannot find them. With {@code barcode.store.unlink-orphaned-large-objects=true}, every start also unlinks, like
+ * PostgreSQL's {@code vacuumlo}, every large object that no {@code oid} or {@code lo} column of any table in the
+ * database references. This is off by default: it cannot tell which application a large object belonged to, so it is
+ * only safe on a database where every large object is referenced from a column, and it needs the right to unlink
+ * them, or the startup fails.</p>
+ *
+ * <p>The migration runs while the context starts, before the entity manager factory is created, so neither
+ * Hibernate nor a request ever sees the {@code oid} column. Everything happens in one transaction, on a transaction
+ * manager of its own since the JPA one is not available yet, so a failed migration leaves the table as it was and
+ * fails the startup. It holds an exclusive lock on the table while the rows are rewritten, and an advisory lock keeps
+ * instances starting at the same time from migrating twice. Once the column is {@code bytea}, only the column type
+ * is checked.</p>
+ *
+ * <p>Runs in the {@code postgres} profile unless {@code barcode.store.migrate-large-objects=false}.</p>
+ */
+@Service
+@Profile("postgres")
+@ConditionalOnProperty(name = "barcode.store.migrate-large-objects", havingValue = "true", matchIfMissing = true)
+public class LargeObjectMigration {
+    private static final Logger log = LoggerFactory.getLogger(LargeObjectMigration.class);
+    // arbitrary key of the advisory lock, unique to this migration
+    private static final long LOCK_KEY = 0x62617263_6f646573L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${barcode.store.unlink-orphaned-large-objects:false}")
+    private boolean unlinkOrphans;
+
+    /**
+     * Constructs the migration with a transaction manager of its own on the given data source.
+     *
+     * @param jdbcTemplate the template executing the statements
+     * @param dataSource   the data source the statements run on
+     */
+    @Autowired
+    public LargeObjectMigration(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Constructs the migration.
+     *
+     * @param jdbcTemplate       the template executing the statements
+     * @param transactionManager the transaction manager running the migration in one transaction
+     */
+    public LargeObjectMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Converts the column if needed, and unlinks orphaned large objects if enabled. Called once the bean is
+     * initialized.
+     */
+    @PostConstruct
+    public void run() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int unlinked = migrate();
+            if (unlinked > 0) {
+                log.info("Moved stored barcode images into bytea and removed {} large objects", unlinked);
+            }
+            if (unlinkOrphans) {
+                int orphans = unlinkOrphans();
+                if (orphans > 0) {
+                    log.info("Removed {} large objects no column referenced", orphans);
+                }
+            }
+        });
+    }
+
+    /**
+     * Converts the column if it still references large objects.
+     *
+     * @return the number of large objects removed, {@code 0} if the column was converted already
+     */
+    private int migrate() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+        List<String> columnType = jdbcTemplate.queryForList("SELECT data_type FROM information_schema.columns"
+                + " WHERE table_schema = current_schema() AND table_name = 'barcodes' AND column_name = 'barcode'", String.class);
+        if (!columnType.equals(List.of("oid"))) {
+            return 0;
+        }
+        log.info("Migrating stored barcode images from large objects to bytea");
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE barcode_large_objects ON COMMIT DROP AS"
+                + " SELECT DISTINCT barcode AS lo FROM barcodes WHERE barcode IS NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE barcodes ALTER COLUMN barcode TYPE bytea USING lo_get(barcode)");
+        Integer unlinked = jdbcTemplate.queryForObject("SELECT count(lo_unlink(lo)) FROM barcode_large_objects"
+                + " WHERE lo IN (SELECT oid FROM pg_largeobject_metadata)", Integer.class);
+        return unlinked != null ? unlinked : 0;
+    }
+
+    /**
+     * Unlinks the large objects that no {@code oid} or {@code lo} column references, finding the columns the way
+     * {@code vacuumlo} does. Runs after {@link #migrate()}, under its advisory lock.
+     *
+     * @return the number of large objects removed
+     */
+    private int unlinkOrphans() {
+        List<String> references = jdbcTemplate.queryForList("SELECT format('NOT EXISTS (SELECT 1 FROM %I.%I"
+                + " WHERE %I = m.oid)', n.nspname, c.relname, a.attname) FROM pg_attribute a"
+                + " JOIN pg_class c ON c.oid = a.attrelid JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " JOIN pg_type t ON t.oid = a.atttypid WHERE a.attnum > 0 AND NOT a.attisdropped"
+                + " AND t.typname IN ('oid', 'lo') AND c.relkind IN ('r', 'm') AND n.nspname !~ '^pg_'"
+                + " AND n.nspname <> 'information_schema'", String.class);
+        String sql = "SELECT count(lo_unlink(m.oid)) FROM pg_largeobject_metadata m";
+        if (!references.isEmpty()) {
+            sql += " WHERE " + String.join(" AND ", references);
+        }
+        Integer unlinked = jdbcTemplate.queryForObject(sql, Integer.class);
+        return unlinked != null ? unlinked : 0;
+    }
+
+    /**
+     * Makes the entity manager factory depend on the migration, so it is created only once the column is converted.
+     */
+    @Component
+    @Profile("postgres")
+    @ConditionalOnProperty(name = "barcode.store.migrate-large-objects", havingValue = "true", matchIfMissing = true)
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(LargeObjectMigration.class);
+        }
+    }
+}
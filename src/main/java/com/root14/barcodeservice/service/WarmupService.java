@@ -0,0 +1,149 @@
+package com.root14.barcodeservice.service;
+
+import com.google.zxing.common.BitMatrix;
+import com.root14.barcodeservice.core.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs synthetic encode and decode work for every {@link BarcodeType} before the application reports ready.
+ *
+ * <p>The first requests after a deploy otherwise pay for ImageIO plugin scanning, ZXing class loading and
+ * JIT compilation. Application runners complete before Spring Boot publishes the {@code ApplicationReadyEvent}
+ * (and, with Actuator, switches readiness to accepting traffic), so that cost moves out of live traffic.
+ * The work goes straight to the writers, renderers and the shared {@link BarcodeReader} bean, bypassing the
+ * caches, so every round exercises the full encode, scale, render and decode path, on the decode pool and with
+ * the configured strategies, without filling the caches with sample data.</p>
+ *
+ * <p>Enabled with {@code barcode.warmup.enabled=true}. With {@code barcode.warmup.exit=true} the application
+ * exits once the warm-up is done, which makes it suitable as the training run for an AppCDS archive.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "barcode.warmup.enabled", havingValue = "true")
+public class WarmupService implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 400;
+
+    private final SymbologyRegistry symbologyRegistry;
+    private final ApplicationContext applicationContext;
+    private final BarcodeReader barcodeReader;
+
+    @Value("${barcode.warmup.iterations:20}")
+    private int iterations;
+
+    @Value("${barcode.warmup.exit:false}")
+    private boolean exitAfterWarmup;
+
+    private volatile Report report;
+
+    /**
+     * Summary of a completed warm-up.
+     *
+     * @param iterations     the number of rounds over all barcode types
+     * @param durationMillis the wall-clock time the warm-up took
+     * @param failures       the barcode types that could not be encoded or decoded, one entry per type
+     */
+    public record Report(int iterations, long durationMillis, List<String> failures) {
+    }
+
+    /**
+     * Constructs the warm-up service.
+     *
+     * @param symbologyRegistry  the registry providing the writers and renderers to exercise
+     * @param barcodeReader      the reader that serves read requests
+     * @param applicationContext the context to close when {@code barcode.warmup.exit} is set
+     */
+    @Autowired
+    public WarmupService(SymbologyRegistry symbologyRegistry, BarcodeReader barcodeReader,
+                         ApplicationContext applicationContext) {
+        this.symbologyRegistry = symbologyRegistry;
+        this.barcodeReader = barcodeReader;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        report = warmUp(iterations);
+        log.info("Warm-up finished: {} rounds over {} barcode types in {} ms{}", report.iterations(),
+                BarcodeType.values().length, report.durationMillis(),
+                report.failures().isEmpty() ? "" : ", failed: " + report.failures());
+        if (exitAfterWarmup) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Encodes, renders in every output format and decodes a sample of every barcode type the given number of times.
+     * Failures are recorded rather than thrown, so a broken symbology never blocks startup.
+     *
+     * @param rounds the number of rounds over all barcode types
+     * @return the {@link Report} of this warm-up
+     */
+    public Report warmUp(int rounds) {
+        long start = System.nanoTime();
+        List<String> failures = new ArrayList<>();
+        for (BarcodeType type : BarcodeType.values()) {
+            try {
+                for (int round = 0; round < rounds; round++) {
+                    exercise(type);
+                }
+            } catch (Exception e) {
+                failures.add(type.getKey() + ": " + e);
+            }
+        }
+        return new Report(rounds, (System.nanoTime() - start) / 1_000_000, List.copyOf(failures));
+    }
+
+    /**
+     * Returns the report of the warm-up run at startup.
+     *
+     * @return the {@link Report}, or {@code null} while the warm-up has not finished
+     */
+    public Report getReport() {
+        return report;
+    }
+
+    private void exercise(BarcodeType type) throws Exception {
+        Symbology symbology = symbologyRegistry.symbology(type.getKey());
+        BitMatrix modules = symbology.writer().encode(sampleData(type), symbology.format(), 0, 0, Map.of());
+        BitMatrix scaled = ModuleScaler.scale(modules, WIDTH, HEIGHT);
+
+        byte[] png = null;
+        for (OutputFormat outputFormat : OutputFormat.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputFormat.render(outputFormat.isVector() ? modules : scaled, WIDTH, HEIGHT, null, out);
+            if (outputFormat == OutputFormat.PNG) {
+                png = out.toByteArray();
+            }
+        }
+        barcodeReader.read(png, DecodeProfile.DEFAULT);
+    }
+
+    private static String sampleData(BarcodeType type) {
+        return switch (type) {
+            case QR, DATA_MATRIX, AZTEC, PDF417 -> "https://example.com/warm-up";
+            case CODE39, CODE93 -> "WARM-UP";
+            case CODE128 -> "warm-up-128";
+            case CODA_BAR -> "A123456B";
+            case ITF -> "12345678";
+            case UPC_A -> "12345678901";
+            case UPC_E -> "0123456";
+            case EAN8 -> "1234567";
+            case EAN13 -> "123456789012";
+        };
+    }
+}
@@ -2,12 +2,13 @@ package com.root14.barcodeservice;
 
 import com.google.zxing.WriterException;
 import com.root14.barcodeservice.controller.BarcodeGeneratorController;
+import com.root14.barcodeservice.core.SymbologyRegistry;
 import com.root14.barcodeservice.dto.ImageObject;
+import com.root14.barcodeservice.exception.GlobalExceptionHandler;
 import com.root14.barcodeservice.service.BarcodeService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpHeaders;
@@ -21,6 +22,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,7 +34,6 @@ class BarcodeGeneratorControllerTest {
     @Mock
     private BarcodeService barcodeService;
 
-    @InjectMocks
     private BarcodeGeneratorController barcodeGeneratorController;
 
     private MockMvc mockMvc;
@@ -41,6 +43,7 @@ class BarcodeGeneratorControllerTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+        barcodeGeneratorController = new BarcodeGeneratorController(barcodeService, SymbologyRegistry.withBuiltIns());
         mockMvc = MockMvcBuilders.standaloneSetup(barcodeGeneratorController).build();
     }
 
@@ -62,25 +65,40 @@ class BarcodeGeneratorControllerTest {
 
         ImageObject mockImageObject = new ImageObject(uuid, barcodeBytes, createdAt);
 
-        when(barcodeService.generate(anyString(), anyString(), anyInt(), anyInt(), anyBoolean())).thenReturn(Optional.of(mockImageObject));
+        when(barcodeService.generate(anyString(), anyString(), anyInt(), anyInt(), anyString(), anyBoolean())).thenReturn(Optional.of(mockImageObject));
 
         mockMvc.perform(get("/generate").param("type", type).param("data", data).param("width", String.valueOf(width)).param("height", String.valueOf(height)).param("store", String.valueOf(store)).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andExpect(jsonPath("$.uuid").value(uuid)).andExpect(jsonPath("$.createdAt").exists()).andExpect(jsonPath("$.barcode").exists());
     }
 
     @Test
     void generateBarcode_notFound() throws Exception {
-        when(barcodeService.generate(anyString(), anyString(), anyInt(), anyInt(), anyBoolean())).thenReturn(Optional.empty());
+        when(barcodeService.generate(anyString(), anyString(), anyInt(), anyInt(), anyString(), anyBoolean())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/generate").param("type", "QR_CODE").param("data", "test-data").param("width", "200").param("height", "200").param("store", "false").accept(MediaType.APPLICATION_JSON)).andExpect(status().isNotFound());
     }
 
     @Test
     void generateBarcode_ioException() throws Exception {
-        when(barcodeService.generate(anyString(), anyString(), anyInt(), anyInt(), anyBoolean())).thenThrow(new IOException("Test IO Exception"));
+        when(barcodeService.generate(anyString(), anyString(), anyInt(), anyInt(), anyString(), anyBoolean())).thenThrow(new IOException("Test IO Exception"));
 
         assertThrows(IOException.class, () -> mockMvc.perform(get("/generate").param("type", "QR_CODE").param("data", "test-data").param("width", "200").param("height", "200").param("store", "false")).andReturn().getResponse().getContentAsString());
     }
 
+    @Test
+    void generateBarcode_acceptImage_invalidType_shouldReturnJsonError() throws Exception {
+        when(barcodeService.generate(eq("nope"), anyString(), anyInt(), anyInt(), anyString(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Unknown barcode type: nope"));
+        MockMvc withAdvice = MockMvcBuilders.standaloneSetup(barcodeGeneratorController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        withAdvice.perform(get("/generate").param("type", "nope").param("data", "raw").accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errorCode").value("INVALID_ARGUMENT"))
+                .andExpect(jsonPath("$.message").value("Unknown barcode type: nope"));
+    }
+
     @Test
     void getBarcode_success() throws Exception {
         String uuid = UUID.randomUUID().toString();
@@ -93,6 +111,38 @@ class BarcodeGeneratorControllerTest {
         mockMvc.perform(get("/getBarcode").param("uuid", uuid).accept(MediaType.IMAGE_PNG)).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_PNG.toString())).andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + uuid + ".png")).andExpect(content().bytes(barcodeBytes));
     }
 
+    @Test
+    void getBarcode_shouldBeCacheableForever() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        when(barcodeService.findBarcode(uuid)).thenReturn(Optional.of(new ImageObject(uuid, new byte[]{1}, Instant.now())));
+
+        mockMvc.perform(get("/getBarcode").param("uuid", uuid))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + uuid + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    void getBarcode_ifNoneMatch_shouldAnswerNotModifiedWithoutLookup() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+
+        mockMvc.perform(get("/getBarcode").param("uuid", uuid).header(HttpHeaders.IF_NONE_MATCH, "\"other\", \"" + uuid + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + uuid + "\""))
+                .andExpect(content().bytes(new byte[0]));
+        verify(barcodeService, never()).findBarcode(anyString());
+    }
+
+    @Test
+    void getBarcode_ifNoneMatchOtherBarcode_shouldReturnImage() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        when(barcodeService.findBarcode(uuid)).thenReturn(Optional.of(new ImageObject(uuid, new byte[]{1}, Instant.now())));
+
+        mockMvc.perform(get("/getBarcode").param("uuid", uuid).header(HttpHeaders.IF_NONE_MATCH, "\"" + UUID.randomUUID() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{1}));
+    }
+
     @Test
     void getBarcode_notFound() throws Exception {
         when(barcodeService.findBarcode(anyString())).thenReturn(Optional.empty());
@@ -110,8 +160,61 @@ class BarcodeGeneratorControllerTest {
 
         ImageObject mockImageObject = new ImageObject(uuid, barcodeBytes, createdAt);
 
-        when(barcodeService.generate(eq(type), eq(data), eq(400), eq(400), eq(false))).thenReturn(Optional.of(mockImageObject));
+        when(barcodeService.generate(eq(type), eq(data), eq(400), eq(400), eq("png"), eq(false))).thenReturn(Optional.of(mockImageObject));
 
         mockMvc.perform(get("/generate").param("type", type).param("data", data).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andExpect(jsonPath("$.uuid").value(uuid));
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateBarcode_withFormat_shouldPassFormatToService() throws Exception {
+        byte[] svgBytes = "<svg/>".getBytes();
+        ImageObject mockImageObject = new ImageObject(null, svgBytes, Instant.now());
+
+        when(barcodeService.generate(eq("PDF417"), eq("label"), eq(600), eq(200), eq("svg"), eq(false))).thenReturn(Optional.of(mockImageObject));
+
+        mockMvc.perform(get("/generate").param("type", "PDF417").param("data", "label").param("width", "600").param("height", "200").param("format", "svg").accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andExpect(jsonPath("$.barcode").exists());
+    }
+
+    @Test
+    void generateBarcode_acceptImage_shouldReturnRawBytesWithMetadataHeaders() throws Exception {
+        byte[] pngBytes = "png-bytes".getBytes();
+        String uuid = UUID.randomUUID().toString();
+        Instant createdAt = Instant.now();
+
+        when(barcodeService.generate(eq("QR_CODE"), eq("raw"), eq(400), eq(400), eq("png"), eq(true))).thenReturn(Optional.of(new ImageObject(uuid, pngBytes, createdAt)));
+
+        mockMvc.perform(get("/generate").param("type", "QR_CODE").param("data", "raw").param("store", "true").accept(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_PNG_VALUE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, pngBytes.length))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + uuid + ".png"))
+                .andExpect(header().string(BarcodeGeneratorController.UUID_HEADER, uuid))
+                .andExpect(header().string(BarcodeGeneratorController.CREATED_AT_HEADER, createdAt.toString()))
+                .andExpect(content().bytes(pngBytes));
+    }
+
+    @Test
+    void generateBarcode_acceptSvg_shouldSelectSvgFormat() throws Exception {
+        byte[] svgBytes = "<svg/>".getBytes();
+
+        when(barcodeService.generate(eq("QR_CODE"), eq("vector"), eq(400), eq(400), eq("svg"), eq(false))).thenReturn(Optional.of(new ImageObject(null, svgBytes, Instant.now())));
+
+        mockMvc.perform(get("/generate").param("type", "QR_CODE").param("data", "vector").header(HttpHeaders.ACCEPT, "image/svg+xml, */*;q=0.1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/svg+xml"))
+                .andExpect(header().doesNotExist(BarcodeGeneratorController.UUID_HEADER))
+                .andExpect(content().bytes(svgBytes));
+    }
+
+    @Test
+    void generateBarcode_rawParam_shouldReturnBytesOfRequestedFormat() throws Exception {
+        byte[] pdfBytes = "%PDF-1.4".getBytes();
+
+        when(barcodeService.generate(eq("CODE_128"), eq("12345678"), eq(300), eq(100), eq("pdf"), eq(false))).thenReturn(Optional.of(new ImageObject(null, pdfBytes, Instant.now())));
+
+        mockMvc.perform(get("/generate").param("type", "CODE_128").param("data", "12345678").param("width", "300").param("height", "100").param("format", "pdf").param("raw", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_PDF_VALUE))
+                .andExpect(content().bytes(pdfBytes));
+    }
+}
@@ -3,7 +3,11 @@ package com.root14.barcodeservice;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
 import com.root14.barcodeservice.controller.BarcodeReaderController;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.core.PageResult;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
 import com.root14.barcodeservice.service.BarcodeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,18 +24,25 @@ import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
 
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(BarcodeReaderController.class)
+@WebMvcTest(controllers = BarcodeReaderController.class, properties = "barcode.read.max-bytes=16")
 class BarcodeReaderControllerTest {
 
     @Autowired
@@ -127,24 +138,73 @@ class BarcodeReaderControllerTest {
                 System.currentTimeMillis()
         );
 
-        when(barcodeService.read(anyString(), any())).thenReturn(mockResult);
+        when(barcodeService.read(any(byte[].class), any())).thenReturn(mockResult);
 
-        String jsonPayload = "{\"data\": \"base64encodedimagedata_as_string\"}";
+        String jsonPayload = "{\"data\": \"aW1hZ2U=\"}";
 
         mockMvc.perform(post("/read")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonPayload)
-                        .param("hint[TRY_HARDER]", "true"))
+                        .param("profile", "try-harder"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.text").value("jsonDecodedText"))
                 .andExpect(jsonPath("$.barcodeFormat").value("CODE_128"));
+
+        verify(barcodeService).read(aryEq("image".getBytes(StandardCharsets.UTF_8)), eq(DecodeProfile.TRY_HARDER));
+    }
+
+    @Test
+    void readBarcode_multi_returnsEverySymbolWithLocation() throws Exception {
+        MockMultipartFile barcodeFile = new MockMultipartFile(
+                "data",
+                "label.png",
+                MediaType.IMAGE_PNG_VALUE,
+                "some barcode image data".getBytes(StandardCharsets.UTF_8)
+        );
+
+        long now = System.currentTimeMillis();
+        List<Result> results = List.of(
+                new Result("SHIP-TO", null, new ResultPoint[]{new ResultPoint(10, 20), new ResultPoint(110, 20), new ResultPoint(10, 120)}, BarcodeFormat.QR_CODE, now),
+                new Result("TRACK123", null, new ResultPoint[]{new ResultPoint(5, 300), null}, BarcodeFormat.CODE_128, now));
+
+        when(barcodeService.readAll(any(MultipartFile.class), eq(DecodeProfile.DEFAULT))).thenReturn(results);
+
+        mockMvc.perform(multipart("/read")
+                        .file(barcodeFile)
+                        .param("multi", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].text").value("SHIP-TO"))
+                .andExpect(jsonPath("$[0].resultPoints.length()").value(3))
+                .andExpect(jsonPath("$[0].resultPoints[1].x").value(110.0))
+                .andExpect(jsonPath("$[1].barcodeFormat").value("CODE_128"))
+                .andExpect(jsonPath("$[1].resultPoints.length()").value(1))
+                .andExpect(jsonPath("$[1].resultPoints[0].y").value(300.0));
+    }
+
+    @Test
+    void readBarcode_unknownProfile_badRequest() throws Exception {
+        MockMultipartFile barcodeFile = new MockMultipartFile(
+                "data",
+                "barcode.png",
+                MediaType.IMAGE_PNG_VALUE,
+                "some barcode image data".getBytes(StandardCharsets.UTF_8)
+        );
+
+        mockMvc.perform(multipart("/read")
+                        .file(barcodeFile)
+                        .param("profile", "everything"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_ARGUMENT"));
+
+        verifyNoInteractions(barcodeService);
     }
 
     @Test
     void readBarcode_applicationJson_notFound() throws Exception {
-        when(barcodeService.read(anyString(), any())).thenThrow(NotFoundException.getNotFoundInstance());
+        when(barcodeService.read(any(byte[].class), any())).thenThrow(NotFoundException.getNotFoundInstance());
 
-        String jsonPayload = "{\"data\": \"base64encoded-image-data-as-string\"}";
+        String jsonPayload = "{\"data\": \"aW1hZ2U\"}";
 
         mockMvc.perform(post("/read")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -154,13 +214,88 @@ class BarcodeReaderControllerTest {
 
     @Test
     void readBarcode_applicationJson_ioException() throws Exception {
-        when(barcodeService.read(anyString(), any())).thenThrow(new IOException("Data decoding error"));
+        when(barcodeService.read(any(byte[].class), any())).thenThrow(new IOException("Data decoding error"));
 
-        String jsonPayload = "{\"data\": \"base64encoded-image-data-as-string\"}";
+        String jsonPayload = "{\"data\": \"aW1hZ2U\"}";
 
         mockMvc.perform(post("/read")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonPayload))
                 .andExpect(status().isInternalServerError());
     }
-}
\ No newline at end of file
+
+    @Test
+    void readBarcode_applicationJson_invalidBase64_badRequest() throws Exception {
+        mockMvc.perform(post("/read")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": \"not_base64!\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_ARGUMENT"));
+
+        verifyNoInteractions(barcodeService);
+    }
+
+    @Test
+    void readBarcode_applicationJson_oversizedBase64_payloadTooLarge() throws Exception {
+        String oversized = Base64.getEncoder().encodeToString(new byte[17]);
+
+        mockMvc.perform(post("/read")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": \"" + oversized + "\"}"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.errorCode").value("IMAGE_TOO_LARGE"))
+                .andExpect(jsonPath("$.message").value("Image exceeds the limit of 16 bytes."));
+
+        verifyNoInteractions(barcodeService);
+    }
+
+    @Test
+    void readBarcode_octetStream_success() throws Exception {
+        Result mockResult = new Result("rawBody", null, null, BarcodeFormat.EAN_13, System.currentTimeMillis());
+        when(barcodeService.read(any(InputStream.class), anyLong(), any())).thenReturn(mockResult);
+
+        byte[] image = "some barcode image data".getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(post("/read")
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(image)
+                        .param("profile", "retail-1d"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.text").value("rawBody"))
+                .andExpect(jsonPath("$.barcodeFormat").value("EAN_13"));
+
+        verify(barcodeService).read(any(InputStream.class), eq((long) image.length), eq(DecodeProfile.RETAIL_1D));
+    }
+
+    @Test
+    void readBarcode_imageTooLarge_payloadTooLarge() throws Exception {
+        when(barcodeService.read(any(InputStream.class), anyLong(), any()))
+                .thenThrow(new ImageTooLargeException("Image of 20000x20000 pixels exceeds the limit of 50000000 pixels."));
+
+        mockMvc.perform(post("/read")
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.errorCode").value("IMAGE_TOO_LARGE"));
+    }
+
+    @Test
+    void readBarcode_pages_returnsResultsPerPage() throws Exception {
+        MockMultipartFile scan = new MockMultipartFile("data", "scan.tiff", "image/tiff", new byte[]{1, 2, 3});
+        long now = System.currentTimeMillis();
+        List<PageResult> pages = List.of(
+                new PageResult(0, List.of(new Result("INVOICE-1", null, null, BarcodeFormat.CODE_128, now))),
+                new PageResult(1, List.of()));
+        when(barcodeService.readPages(any(MultipartFile.class), eq(DecodeProfile.DEFAULT), eq(5))).thenReturn(pages);
+
+        mockMvc.perform(multipart("/read")
+                        .file(scan)
+                        .param("pages", "true")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].page").value(0))
+                .andExpect(jsonPath("$[0].results[0].text").value("INVOICE-1"))
+                .andExpect(jsonPath("$[1].page").value(1))
+                .andExpect(jsonPath("$[1].results.length()").value(0));
+    }
+}
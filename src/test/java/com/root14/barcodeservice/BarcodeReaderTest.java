@@ -1,16 +1,42 @@
 package com.root14.barcodeservice;
 
 import com.google.zxing.*;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeWriter;
 import com.root14.barcodeservice.core.BarcodeReader;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.core.DecodeStrategy;
+import com.root14.barcodeservice.core.PageResult;
+import com.root14.barcodeservice.exception.DecodeTimeoutException;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,4 +82,388 @@ class BarcodeReaderTest {
         assertThrows(NotFoundException.class, () ->
                 barcodeReader.read(inputStream, new HashMap<>()));
     }
+
+    @Test
+    void testRead_jpeg_decodesFromLumaChannel() throws Exception {
+        byte[] jpeg = photo(1200, 900, "jpeg-luma");
+
+        assertEquals("jpeg-luma", barcodeReader.read(new ByteArrayInputStream(jpeg), new HashMap<>()).getText());
+    }
+
+    @Test
+    void testRead_allocatesLessThanHalfOfBufferedImagePath() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] jpeg = photo(4000, 3000, "allocation");
+        // warm up both paths so class loading is not counted
+        decodeWithBufferedImage(jpeg);
+        barcodeReader.read(new ByteArrayInputStream(jpeg), new HashMap<>());
+
+        long start = threads.getCurrentThreadAllocatedBytes();
+        decodeWithBufferedImage(jpeg);
+        long bufferedImagePath = threads.getCurrentThreadAllocatedBytes() - start;
+
+        start = threads.getCurrentThreadAllocatedBytes();
+        Result result = barcodeReader.read(new ByteArrayInputStream(jpeg), new HashMap<>());
+        long rasterPath = threads.getCurrentThreadAllocatedBytes() - start;
+
+        assertEquals("allocation", result.getText());
+        assertTrue(rasterPath * 2 <= bufferedImagePath, "raster path " + rasterPath + " bytes, BufferedImage path " + bufferedImagePath + " bytes");
+    }
+
+    @Test
+    void testRead_byteArray_decodesWithoutStream() throws Exception {
+        // subsampled first, so the array is read twice
+        byte[] jpeg = photo(4000, 3000, "in-memory");
+
+        assertEquals("in-memory", barcodeReader.read(jpeg, DecodeProfile.DEFAULT).getText());
+        assertEquals("in-memory", barcodeReader.readAll(jpeg, DecodeProfile.DEFAULT).get(0).getText());
+        assertThrows(IllegalArgumentException.class, () ->
+                barcodeReader.read("not an image".getBytes(), DecodeProfile.DEFAULT));
+    }
+
+    @Test
+    void testRead_decompressionBomb_rejectedFromHeader() throws Exception {
+        // a 20000x20000 header in front of a tiny image; decoding it would need 400 MP of raster
+        byte[] png = png(BarcodeFormat.QR_CODE, "bomb", 100, 100);
+        ByteBuffer.wrap(png).putInt(16, 20_000).putInt(20, 20_000);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        ByteBuffer.wrap(png).putInt(29, (int) crc.getValue());
+
+        ImageTooLargeException exception = assertThrows(ImageTooLargeException.class, () ->
+                barcodeReader.read(png, DecodeProfile.DEFAULT));
+        assertTrue(exception.getMessage().contains("20000x20000"), exception.getMessage());
+    }
+
+    @Test
+    void testRead_pixelLimit_appliesToEveryReadMode() throws Exception {
+        BarcodeReader limited = new BarcodeReader(null, List.of(), Duration.ZERO, 100 * 100);
+        byte[] small = png(BarcodeFormat.QR_CODE, "small", 100, 100);
+        byte[] large = png(BarcodeFormat.QR_CODE, "large", 101, 100);
+
+        assertEquals("small", limited.read(small, DecodeProfile.DEFAULT).getText());
+        assertThrows(ImageTooLargeException.class, () -> limited.read(large, DecodeProfile.DEFAULT));
+        assertThrows(ImageTooLargeException.class, () -> limited.read(new ByteArrayInputStream(large), new HashMap<>()));
+        assertThrows(ImageTooLargeException.class, () -> limited.readAll(large, DecodeProfile.DEFAULT));
+    }
+
+    @Test
+    void testReadPages_multiPageTiff_returnsResultsPerPage() throws Exception {
+        byte[] tiff = tiff(
+                MatrixToImageWriter.toBufferedImage(new MultiFormatWriter().encode("page-0", BarcodeFormat.QR_CODE, 200, 200)),
+                new BufferedImage(200, 200, BufferedImage.TYPE_BYTE_GRAY),
+                MatrixToImageWriter.toBufferedImage(new MultiFormatWriter().encode("PAGE-2", BarcodeFormat.CODE_128, 300, 100)));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<PageResult> pages = new BarcodeReader(pool).readPages(tiff, DecodeProfile.DEFAULT, 0);
+
+            assertEquals(List.of(0, 1, 2), pages.stream().map(PageResult::page).toList());
+            assertEquals("page-0", pages.get(0).results().get(0).getText());
+            assertTrue(pages.get(1).results().isEmpty());
+            assertEquals("PAGE-2", pages.get(2).results().get(0).getText());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReadPages_limit_stopsAfterEnoughSymbols() throws Exception {
+        BufferedImage qr = MatrixToImageWriter.toBufferedImage(new MultiFormatWriter().encode("first", BarcodeFormat.QR_CODE, 200, 200));
+        byte[] tiff = tiff(qr, qr, qr);
+
+        List<PageResult> pages = barcodeReader.readPages(tiff, DecodeProfile.QR_ONLY, 1);
+
+        assertEquals(1, pages.size());
+        assertEquals("first", pages.get(0).results().get(0).getText());
+        assertThrows(NotFoundException.class, () ->
+                barcodeReader.readPages(tiff(new BufferedImage(100, 100, BufferedImage.TYPE_BYTE_GRAY)), DecodeProfile.DEFAULT, 0));
+    }
+
+    @Test
+    void testReadPages_pageAndTotalPixelLimits_rejectImage() throws Exception {
+        BufferedImage page = new BufferedImage(100, 100, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] tiff = tiff(page, page, page);
+
+        ImageTooLargeException pages = assertThrows(ImageTooLargeException.class, () ->
+                new BarcodeReader(null, List.of(), Duration.ZERO, 100 * 100, 2, 3 * 100 * 100)
+                        .readPages(tiff, DecodeProfile.DEFAULT, 0));
+        ImageTooLargeException pixels = assertThrows(ImageTooLargeException.class, () ->
+                new BarcodeReader(null, List.of(), Duration.ZERO, 100 * 100, 3, 2 * 100 * 100)
+                        .readPages(tiff, DecodeProfile.DEFAULT, 0));
+
+        assertEquals("Image has more than 2 pages.", pages.getMessage());
+        assertTrue(pixels.getMessage().contains("20000 pixels in total"), pixels.getMessage());
+    }
+
+    @Test
+    void testRead_qrOnlyProfile_skipsLinearBarcodes() throws Exception {
+        byte[] code128 = png(BarcodeFormat.CODE_128, "LINEAR-42", 400, 120);
+
+        assertEquals("LINEAR-42", barcodeReader.read(new ByteArrayInputStream(code128), DecodeProfile.DEFAULT).getText());
+        assertThrows(NotFoundException.class, () ->
+                barcodeReader.read(new ByteArrayInputStream(code128), DecodeProfile.QR_ONLY));
+    }
+
+    @Test
+    void testRead_profileReaderIsReusedAcrossImages() throws Exception {
+        byte[] ean = png(BarcodeFormat.EAN_13, "5901234123457", 400, 120);
+        byte[] code128 = png(BarcodeFormat.CODE_128, "RETAIL-1", 400, 120);
+        byte[] qr = png(BarcodeFormat.QR_CODE, "not-retail", 200, 200);
+
+        for (int i = 0; i < 3; i++) {
+            Result first = barcodeReader.read(new ByteArrayInputStream(ean), DecodeProfile.RETAIL_1D);
+            Result second = barcodeReader.read(new ByteArrayInputStream(code128), DecodeProfile.RETAIL_1D);
+
+            assertEquals("5901234123457", first.getText());
+            assertEquals(BarcodeFormat.EAN_13, first.getBarcodeFormat());
+            assertEquals("RETAIL-1", second.getText());
+            assertThrows(NotFoundException.class, () ->
+                    barcodeReader.read(new ByteArrayInputStream(qr), DecodeProfile.RETAIL_1D));
+        }
+    }
+
+    @Test
+    void testReadAll_shippingLabel_returnsEverySymbolWithLocation() throws Exception {
+        byte[] label = label();
+
+        List<Result> results = barcodeReader.readAll(new ByteArrayInputStream(label), DecodeProfile.DEFAULT);
+
+        Map<String, BarcodeFormat> found = new HashMap<>();
+        for (Result result : results) {
+            found.put(result.getText(), result.getBarcodeFormat());
+            assertTrue(result.getResultPoints().length >= 2, "no location for " + result.getText());
+        }
+        assertEquals(Map.of(
+                "SHIP-FROM-1", BarcodeFormat.QR_CODE,
+                "SHIP-TO-2", BarcodeFormat.QR_CODE,
+                "TRACK123456", BarcodeFormat.CODE_128,
+                "5901234123457", BarcodeFormat.EAN_13), found);
+        assertEquals(4, results.size());
+
+        // the first QR code is drawn in the bottom left quarter of the label
+        ResultPoint[] points = results.stream().filter(r -> r.getText().equals("SHIP-FROM-1")).findFirst().orElseThrow().getResultPoints();
+        for (ResultPoint point : points) {
+            assertTrue(point.getX() < 400 && point.getY() > 300, point.toString());
+        }
+    }
+
+    @Test
+    void testReadAll_profileLimitsFormats() throws Exception {
+        byte[] label = label();
+
+        List<Result> qr = barcodeReader.readAll(new ByteArrayInputStream(label), DecodeProfile.QR_ONLY);
+        List<Result> retail = barcodeReader.readAll(new ByteArrayInputStream(label), DecodeProfile.RETAIL_1D);
+
+        assertEquals(2, qr.size());
+        assertTrue(qr.stream().allMatch(r -> r.getBarcodeFormat() == BarcodeFormat.QR_CODE));
+        assertEquals(2, retail.size());
+        assertTrue(retail.stream().noneMatch(r -> r.getBarcodeFormat() == BarcodeFormat.QR_CODE));
+    }
+
+    @Test
+    void testRead_largePhoto_reportsPointsInImageCoordinates() throws Exception {
+        // decoded from the subsampled image, the points are scaled back up
+        byte[] jpeg = photo(4000, 3000, "large-photo");
+
+        Result result = barcodeReader.read(new ByteArrayInputStream(jpeg), DecodeProfile.DEFAULT);
+
+        assertEquals("large-photo", result.getText());
+        for (ResultPoint point : result.getResultPoints()) {
+            assertTrue(point.getX() > 4000 / 3 && point.getX() < 4000 / 3 + 1000, point.toString());
+            assertTrue(point.getY() > 1000 && point.getY() < 2000, point.toString());
+        }
+    }
+
+    @Test
+    void testRead_smallCodeInLargePhoto_foundInTile() throws Exception {
+        BufferedImage photo = new BufferedImage(4000, 3000, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = photo.createGraphics();
+        graphics.setColor(new Color(0xD8D2C8));
+        graphics.fillRect(0, 0, 4000, 3000);
+        graphics.drawImage(MatrixToImageWriter.toBufferedImage(new QRCodeWriter().encode("small-qr-code-1234567890", BarcodeFormat.QR_CODE, 150, 150)), 3500, 200, null);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(photo, "jpeg", out);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Result result = new BarcodeReader(pool).read(new ByteArrayInputStream(out.toByteArray()), DecodeProfile.DEFAULT);
+
+            assertEquals("small-qr-code-1234567890", result.getText());
+            for (ResultPoint point : result.getResultPoints()) {
+                assertTrue(point.getX() > 3500 && point.getX() < 3650, point.toString());
+                assertTrue(point.getY() > 200 && point.getY() < 350, point.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testRead_invertedCode_decodedByFallbackStrategy() throws Exception {
+        BufferedImage qr = MatrixToImageWriter.toBufferedImage(new QRCodeWriter().encode("inverted", BarcodeFormat.QR_CODE, 300, 300),
+                new MatrixToImageConfig(0xFFFFFFFF, 0xFF000000));
+        byte[] png = encode(qr);
+
+        assertThrows(NotFoundException.class, () -> barcodeReader.read(new ByteArrayInputStream(png), DecodeProfile.DEFAULT));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            BarcodeReader withStrategies = new BarcodeReader(pool, List.of(DecodeStrategy.GLOBAL_HISTOGRAM, DecodeStrategy.INVERTED,
+                    DecodeStrategy.ROTATED), Duration.ofSeconds(10));
+            assertEquals("inverted", withStrategies.read(new ByteArrayInputStream(png), DecodeProfile.DEFAULT).getText());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testRead_verticalCode_rotatedStrategyReportsOriginalCoordinates() throws Exception {
+        // a Code 128 barcode turned upright, 100 px wide at x 50..150 and 400 px high at y 100..500
+        BufferedImage horizontal = MatrixToImageWriter.toBufferedImage(new MultiFormatWriter().encode("VERTICAL-1", BarcodeFormat.CODE_128, 400, 100));
+        BufferedImage page = new BufferedImage(300, 600, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = page.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 300, 600);
+        graphics.rotate(Math.PI / 2, 150, 300);
+        graphics.drawImage(horizontal, -50, 250, null);
+        graphics.dispose();
+        byte[] png = encode(page);
+
+        assertThrows(NotFoundException.class, () -> barcodeReader.read(new ByteArrayInputStream(png), DecodeProfile.DEFAULT));
+
+        Result result = new BarcodeReader(null, List.of(DecodeStrategy.ROTATED), Duration.ofSeconds(10))
+                .read(new ByteArrayInputStream(png), DecodeProfile.DEFAULT);
+
+        assertEquals("VERTICAL-1", result.getText());
+        for (ResultPoint point : result.getResultPoints()) {
+            assertTrue(point.getX() >= 50 && point.getX() <= 150, point.toString());
+            assertTrue(point.getY() >= 100 && point.getY() <= 500, point.toString());
+        }
+    }
+
+    @Test
+    void testRead_strategyBudgetSpent_throwsDecodeTimeoutException() throws Exception {
+        BufferedImage qr = MatrixToImageWriter.toBufferedImage(new QRCodeWriter().encode("inverted", BarcodeFormat.QR_CODE, 300, 300),
+                new MatrixToImageConfig(0xFFFFFFFF, 0xFF000000));
+        byte[] png = encode(qr);
+
+        BarcodeReader noBudget = new BarcodeReader(null, List.of(DecodeStrategy.INVERTED), Duration.ZERO);
+
+        assertThrows(DecodeTimeoutException.class, () -> noBudget.read(new ByteArrayInputStream(png), DecodeProfile.DEFAULT));
+    }
+
+    @Test
+    void testRead_strategies_runAtMostTwoAtATimeAndNotAfterBudget() throws Exception {
+        byte[] blank = encode(new BufferedImage(300, 300, BufferedImage.TYPE_BYTE_GRAY));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger started = new AtomicInteger();
+        Executor counting = task -> pool.execute(() -> {
+            started.incrementAndGet();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        try {
+            List<DecodeStrategy> all = List.of(DecodeStrategy.values());
+            assertThrows(NotFoundException.class, () -> new BarcodeReader(counting, all, Duration.ofSeconds(10))
+                    .read(new ByteArrayInputStream(blank), DecodeProfile.DEFAULT));
+            // every strategy was tried, as no DecodeTimeoutException was thrown, by two tasks taking turns
+            assertEquals(2, started.get());
+            assertTrue(maxRunning.get() <= 2, "ran " + maxRunning.get() + " at once");
+
+            // with the budget spent, strategies still waiting for a slot are skipped and the read gives up
+            BarcodeReader noBudget = new BarcodeReader(counting, all, Duration.ZERO);
+            assertThrows(DecodeTimeoutException.class, () -> noBudget.read(new ByteArrayInputStream(blank), DecodeProfile.DEFAULT));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testDecodeProfile_fromKey() {
+        assertEquals(DecodeProfile.TRY_HARDER, DecodeProfile.fromKey("Try-Harder"));
+        assertEquals(Boolean.TRUE, DecodeProfile.TRY_HARDER.getHints().get(DecodeHintType.TRY_HARDER));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> DecodeProfile.fromKey("everything"));
+        assertEquals("Unknown decode profile: everything", exception.getMessage());
+    }
+
+    private static Result decodeWithBufferedImage(byte[] image) throws Exception {
+        BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(image));
+        BinaryBitmap binaryBitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(bufferedImage)));
+        return new MultiFormatReader().decode(binaryBitmap, new HashMap<>());
+    }
+
+    /**
+     * Draws a shipping label on a white 800x600 page: two linear barcodes across the middle, where 1D readers scan
+     * without try-harder, and two QR codes below them.
+     */
+    private static byte[] label() throws Exception {
+        BufferedImage page = new BufferedImage(800, 600, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = page.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 800, 600);
+        MultiFormatWriter writer = new MultiFormatWriter();
+        graphics.drawImage(MatrixToImageWriter.toBufferedImage(writer.encode("SHIP-FROM-1", BarcodeFormat.QR_CODE, 200, 200)), 40, 380, null);
+        graphics.drawImage(MatrixToImageWriter.toBufferedImage(writer.encode("SHIP-TO-2", BarcodeFormat.QR_CODE, 200, 200)), 520, 380, null);
+        graphics.drawImage(MatrixToImageWriter.toBufferedImage(writer.encode("TRACK123456", BarcodeFormat.CODE_128, 360, 100)), 20, 230, null);
+        graphics.drawImage(MatrixToImageWriter.toBufferedImage(writer.encode("5901234123457", BarcodeFormat.EAN_13, 300, 100)), 460, 230, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(page, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] tiff(BufferedImage... pages) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (BufferedImage page : pages) {
+                writer.writeToSequence(new IIOImage(page, null, null), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] png(BarcodeFormat format, String data, int width, int height) throws Exception {
+        BitMatrix matrix = new MultiFormatWriter().encode(data, format, width, height);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(matrix, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Draws a QR code onto a light gray "photo" and encodes it as a JPEG, like an upload from a phone camera.
+     */
+    private static byte[] photo(int width, int height, String data) throws Exception {
+        BitMatrix qr = new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, height / 3, height / 3);
+        BufferedImage photo = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = photo.createGraphics();
+        graphics.setColor(new Color(0xD8D2C8));
+        graphics.fillRect(0, 0, width, height);
+        graphics.drawImage(MatrixToImageWriter.toBufferedImage(qr), width / 3, height / 3, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(photo, "jpeg", out);
+        return out.toByteArray();
+    }
 }
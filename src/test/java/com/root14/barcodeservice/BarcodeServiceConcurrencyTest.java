@@ -0,0 +1,75 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.cache.DecodeCache;
+import com.root14.barcodeservice.cache.ImageCache;
+import com.root14.barcodeservice.cache.MatrixCache;
+import com.root14.barcodeservice.cache.StoredBarcodeCache;
+import com.root14.barcodeservice.core.BarcodeReader;
+import com.root14.barcodeservice.core.SymbologyRegistry;
+import com.root14.barcodeservice.service.BarcodeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers {@link BarcodeService#generate} from many threads at once and checks that every
+ * response decodes back to exactly the data that was requested, i.e. no request sees
+ * another request's image.
+ */
+class BarcodeServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int CALLS_PER_THREAD = 40;
+
+    private BarcodeService barcodeService;
+
+    @BeforeEach
+    void setUp() {
+        barcodeService = new BarcodeService(SymbologyRegistry.withBuiltIns(), null, new ImageCache(1024 * 1024), new MatrixCache(1024 * 1024), new BarcodeReader(), new DecodeCache(0, 0, 0), new StoredBarcodeCache(0), null);
+        ReflectionTestUtils.setField(barcodeService, "profile", "default");
+    }
+
+    @Test
+    void generate_concurrentCalls_shouldNotBleedBetweenRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    BarcodeReader reader = new BarcodeReader();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        boolean qr = i % 2 == 0;
+                        String data = "request-" + thread + "-" + i;
+                        // vary the size too, so a shared buffer would also corrupt the PNG structure
+                        int width = 300 + (i % 5) * 25;
+                        int height = qr ? width : 100;
+
+                        byte[] png = barcodeService.generate(qr ? "qr" : "code128", data, width, height, false).orElseThrow().barcode();
+                        String decoded = reader.read(new ByteArrayInputStream(png), new HashMap<>()).getText();
+                        assertEquals(data, decoded);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -2,37 +2,50 @@ package com.root14.barcodeservice;
 
 import com.google.zxing.*;
 import com.google.zxing.qrcode.QRCodeWriter;
-import com.root14.barcodeservice.core.BarcodeGenerator;
+import com.root14.barcodeservice.cache.DecodeCache;
+import com.root14.barcodeservice.cache.ImageCache;
+import com.root14.barcodeservice.cache.MatrixCache;
+import com.root14.barcodeservice.cache.StoredBarcodeCache;
 import com.root14.barcodeservice.core.BarcodeReader;
-import com.root14.barcodeservice.core.BarcodeType;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.core.RenderSpec;
+import com.root14.barcodeservice.core.Symbology;
+import com.root14.barcodeservice.core.SymbologyProvider;
+import com.root14.barcodeservice.core.SymbologyRegistry;
 import com.root14.barcodeservice.dto.ImageObject;
 import com.root14.barcodeservice.entity.BarcodeEntity;
+import com.root14.barcodeservice.exception.ImageTooLargeException;
 import com.root14.barcodeservice.repository.BarcodeRepository;
+import com.root14.barcodeservice.repository.StoredBarcode;
 import com.root14.barcodeservice.service.BarcodeService;
+import com.root14.barcodeservice.service.BarcodeWriteBehind;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.EOFException;
 import java.time.Instant;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 class BarcodeServiceTest {
 
     AutoCloseable closeable;
 
-    @Mock
-    private ApplicationContext applicationContext;
+    private QRCodeWriter qrCodeWriter;
+
+    private SymbologyRegistry symbologyRegistry;
 
     @Mock
     private BarcodeRepository barcodeRepository;
@@ -40,19 +53,16 @@ class BarcodeServiceTest {
     @Mock
     private BarcodeReader barcodeReader;
 
-    @Mock
-    private BarcodeGenerator barcodeGenerator;
-
-    @InjectMocks
     private BarcodeService barcodeService;
 
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        barcodeService = new BarcodeService(applicationContext, barcodeRepository); // Re-initialize after mocks are opened
+        qrCodeWriter = spy(new QRCodeWriter());
+        symbologyRegistry = SymbologyRegistry.withBuiltIns(writerClass -> writerClass == QRCodeWriter.class ? qrCodeWriter : mock(writerClass));
+        barcodeService = new BarcodeService(symbologyRegistry, barcodeRepository, new ImageCache(1024 * 1024), new MatrixCache(1024 * 1024), barcodeReader,
+                new DecodeCache(1024 * 1024, 60_000, 60_000), new StoredBarcodeCache(0), null);
         ReflectionTestUtils.setField(barcodeService, "profile", "postgres"); // Default to postgres profile for tests
-        ReflectionTestUtils.setField(barcodeService, "barcodeReader", barcodeReader);
-        ReflectionTestUtils.setField(barcodeService, "barcodeGenerator", barcodeGenerator);
     }
 
     @AfterEach
@@ -64,21 +74,8 @@ class BarcodeServiceTest {
     void generate_shouldReturnImageObjectWithDbStore() throws Exception {
         String data = "test-data";
         int width = 200, height = 200;
-        BarcodeType type = BarcodeType.QR;
-        Writer writer = mock(QRCodeWriter.class); // use a specific writer for the mock
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        when((Writer) applicationContext.getBean(type.getWriterClass())).thenReturn(writer);
-        when(barcodeGenerator.generate(data, width, height)).thenReturn(image);
-
-        byte[] imageBytes;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "png", baos);
-            imageBytes = baos.toByteArray();
-        }
 
-        BarcodeEntity entity = new BarcodeEntity(imageBytes);
+        BarcodeEntity entity = new BarcodeEntity(new byte[0]);
         UUID generatedUuid = UUID.randomUUID();
         Instant createdAt = Instant.now();
         ReflectionTestUtils.setField(entity, "id", generatedUuid);
@@ -92,6 +89,7 @@ class BarcodeServiceTest {
         assertNotNull(result.get().barcode());
         assertEquals(generatedUuid.toString(), result.get().uuid());
         assertEquals(createdAt, result.get().createdAt());
+        assertEquals(data, decode(result.get().barcode()));
         verify(barcodeRepository, times(1)).save(any(BarcodeEntity.class));
     }
 
@@ -101,12 +99,6 @@ class BarcodeServiceTest {
 
         String data = "no-db";
         int width = 100, height = 100;
-        BarcodeType type = BarcodeType.QR;
-        Writer writer = mock(QRCodeWriter.class);
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        when((Writer)applicationContext.getBean(type.getWriterClass())).thenReturn(writer);
-        when(barcodeGenerator.generate(data, width, height)).thenReturn(image);
 
         Optional<ImageObject> result = barcodeService.generate("QR", data, width, height, true); // Still pass true for store
 
@@ -123,12 +115,6 @@ class BarcodeServiceTest {
 
         String data = "no-db-explicitly";
         int width = 100, height = 100;
-        BarcodeType type = BarcodeType.QR;
-        Writer writer = mock(QRCodeWriter.class);
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        when((Writer)applicationContext.getBean(type.getWriterClass())).thenReturn(writer);
-        when(barcodeGenerator.generate(data, width, height)).thenReturn(image);
 
         Optional<ImageObject> result = barcodeService.generate("QR", data, width, height, false); // explicitly false
 
@@ -139,14 +125,117 @@ class BarcodeServiceTest {
     }
 
     @Test
-    void findBarcode_shouldReturnImageObject() {
+    void generate_store_shouldPersistSpecOnly() throws Exception {
+        BarcodeEntity entity = new BarcodeEntity(new byte[0]);
+        ReflectionTestUtils.setField(entity, "id", UUID.randomUUID());
+        when(barcodeRepository.save(any(BarcodeEntity.class))).thenReturn(entity);
+
+        barcodeService.generate("QR", "spec-only", 200, 150, true);
+
+        ArgumentCaptor<BarcodeEntity> saved = ArgumentCaptor.forClass(BarcodeEntity.class);
+        verify(barcodeRepository).save(saved.capture());
+        assertNull(saved.getValue().getBarcode());
+        assertEquals(new RenderSpec("qr", "spec-only", 200, 150, "png"), saved.getValue().getRenderSpec());
+    }
+
+    @Test
+    void generate_storeExistingSpec_shouldReturnExistingRow() throws Exception {
+        RenderSpec spec = new RenderSpec("qr", "stored-once", 200, 200, "png");
+        BarcodeEntity entity = new BarcodeEntity(spec);
+        UUID id = UUID.randomUUID();
+        ReflectionTestUtils.setField(entity, "id", id);
+        when(barcodeRepository.findBySpecHash(aryEq(BarcodeEntity.hash(spec)))).thenReturn(Optional.of(entity));
+
+        Optional<ImageObject> result = barcodeService.generate("QR", "stored-once", 200, 200, true);
+
+        assertEquals(id.toString(), result.orElseThrow().uuid());
+        verify(barcodeRepository, never()).save(any(BarcodeEntity.class));
+    }
+
+    @Test
+    void generate_storeConcurrentDuplicate_shouldReturnWinningRow() throws Exception {
+        RenderSpec spec = new RenderSpec("qr", "stored-twice-at-once", 200, 200, "png");
+        BarcodeEntity winner = new BarcodeEntity(spec);
+        UUID id = UUID.randomUUID();
+        ReflectionTestUtils.setField(winner, "id", id);
+        when(barcodeRepository.findBySpecHash(any(byte[].class))).thenReturn(Optional.empty(), Optional.of(winner));
+        when(barcodeRepository.save(any(BarcodeEntity.class))).thenThrow(new DataIntegrityViolationException("barcodes_spec_hash_key"));
+
+        Optional<ImageObject> result = barcodeService.generate("QR", "stored-twice-at-once", 200, 200, true);
+
+        assertEquals(id.toString(), result.orElseThrow().uuid());
+    }
+
+    @Test
+    void generate_storeWithWriteBehind_shouldQueueAndServeFromQueue() throws Exception {
+        BarcodeWriteBehind writeBehind = mock(BarcodeWriteBehind.class);
+        barcodeService = new BarcodeService(SymbologyRegistry.withBuiltIns(), barcodeRepository, new ImageCache(0), new MatrixCache(0), barcodeReader,
+                new DecodeCache(0, 0, 0), new StoredBarcodeCache(0), writeBehind);
+        ReflectionTestUtils.setField(barcodeService, "profile", "postgres");
+        RenderSpec spec = new RenderSpec("qr", "written-later", 200, 200, "png");
+        BarcodeEntity queued = new BarcodeEntity(spec).setId(UUID.randomUUID()).setCreatedAt(Instant.now());
+        when(writeBehind.enqueue(spec)).thenReturn(queued);
+        when(writeBehind.find(queued.getId())).thenReturn(Optional.of(queued));
+
+        ImageObject stored = barcodeService.generate("QR", "written-later", 200, 200, true).orElseThrow();
+        ImageObject found = barcodeService.findBarcode(stored.uuid()).orElseThrow();
+
+        assertEquals(queued.getId().toString(), stored.uuid());
+        assertEquals("written-later", decode(found.barcode()));
+        verify(barcodeRepository, never()).save(any(BarcodeEntity.class));
+        verify(barcodeRepository, never()).findStoredById(any());
+    }
+
+    @Test
+    void hash_shouldDistinguishSpecs() {
+        RenderSpec spec = new RenderSpec("qr", "ab", 200, 200, "png");
+
+        assertArrayEquals(BarcodeEntity.hash(spec), BarcodeEntity.hash(new RenderSpec("qr", "ab", 200, 200, "png")));
+        assertEquals(32, BarcodeEntity.hash(spec).length);
+        assertFalse(Arrays.equals(BarcodeEntity.hash(spec), BarcodeEntity.hash(new RenderSpec("qr", "ab", 200, 201, "png"))));
+        assertFalse(Arrays.equals(BarcodeEntity.hash(new RenderSpec("qra", "b", 200, 200, "png")), BarcodeEntity.hash(spec)));
+    }
+
+    @Test
+    void findBarcode_storedSpec_shouldRenderImage() throws Exception {
+        UUID id = UUID.randomUUID();
+        BarcodeEntity entity = new BarcodeEntity(new RenderSpec("qr", "re-rendered", 200, 200, "png"));
+        ReflectionTestUtils.setField(entity, "id", id);
+        when(barcodeRepository.findStoredById(id)).thenReturn(Optional.of(StoredBarcode.of(entity)));
+
+        byte[] first = barcodeService.findBarcode(id.toString()).orElseThrow().barcode();
+        byte[] second = barcodeService.findBarcode(id.toString()).orElseThrow().barcode();
+
+        assertEquals("re-rendered", decode(first));
+        assertSame(first, second); // served from the image cache
+        assertArrayEquals(barcodeService.generate("QR", "re-rendered", 200, 200, false).orElseThrow().barcode(), first);
+    }
+
+    @Test
+    void findBarcode_hotUuid_shouldQueryOnce() throws Exception {
+        barcodeService = new BarcodeService(SymbologyRegistry.withBuiltIns(), barcodeRepository, new ImageCache(0), new MatrixCache(0), barcodeReader,
+                new DecodeCache(0, 0, 0), new StoredBarcodeCache(1024 * 1024), null);
+        UUID id = UUID.randomUUID();
+        BarcodeEntity entity = new BarcodeEntity(new RenderSpec("qr", "hot", 200, 200, "png"));
+        ReflectionTestUtils.setField(entity, "id", id);
+        when(barcodeRepository.findStoredById(id)).thenReturn(Optional.of(StoredBarcode.of(entity)));
+
+        ImageObject first = barcodeService.findBarcode(id.toString()).orElseThrow();
+        ImageObject second = barcodeService.findBarcode(id.toString()).orElseThrow();
+
+        assertSame(first, second);
+        verify(barcodeRepository, times(1)).findStoredById(id);
+    }
+
+    @Test
+    void findBarcode_shouldReturnImageObject() throws Exception {
         UUID id = UUID.randomUUID();
         byte[] testBytes = "test".getBytes();
         BarcodeEntity entity = new BarcodeEntity(testBytes);
         ReflectionTestUtils.setField(entity, "id", id);
         ReflectionTestUtils.setField(entity, "createdAt", Instant.now());
 
-        when(barcodeRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(barcodeRepository.findStoredById(id)).thenReturn(Optional.of(StoredBarcode.of(entity)));
 
         Optional<ImageObject> result = barcodeService.findBarcode(id.toString());
 
@@ -156,9 +245,9 @@ class BarcodeServiceTest {
     }
 
     @Test
-    void findBarcode_shouldReturnEmpty() {
+    void findBarcode_shouldReturnEmpty() throws Exception {
         UUID id = UUID.randomUUID();
-        when(barcodeRepository.findById(id)).thenReturn(Optional.empty());
+        when(barcodeRepository.findStoredById(id)).thenReturn(Optional.empty());
 
         Optional<ImageObject> result = barcodeService.findBarcode(id.toString());
 
@@ -166,21 +255,20 @@ class BarcodeServiceTest {
     }
 
     @Test
-    void read_shouldDecodeFromBase64() throws Exception {
+    void read_shouldDecodeFromBytes() throws Exception {
         String testData = "test-barcode";
         BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         ImageIO.write(image, "png", byteArrayOutputStream);
-        String base64 = Base64.getEncoder().encodeToString(byteArrayOutputStream.toByteArray());
 
         Result mockResult = new Result(testData, null, null, BarcodeFormat.QR_CODE);
-        when(barcodeReader.read(any(InputStream.class), anyMap())).thenReturn(mockResult);
+        when(barcodeReader.read(any(byte[].class), any(DecodeProfile.class))).thenReturn(mockResult);
 
-        Result result = barcodeService.read(base64, Collections.emptyMap());
+        Result result = barcodeService.read(byteArrayOutputStream.toByteArray(), DecodeProfile.DEFAULT);
 
         assertNotNull(result);
         assertEquals(testData, result.getText());
-        verify(barcodeReader, times(1)).read(any(InputStream.class), anyMap()); // verify barcodeReader.read was called
+        verify(barcodeReader, times(1)).read(any(byte[].class), any(DecodeProfile.class)); // verify barcodeReader.read was called
     }
 
     @Test
@@ -192,13 +280,55 @@ class BarcodeServiceTest {
         MockMultipartFile mockFile = new MockMultipartFile("file", "barcode.png", "image/png", byteArrayOutputStream.toByteArray());
 
         Result mockResult = new Result(testData, null, null, BarcodeFormat.CODE_128);
-        when(barcodeReader.read(any(InputStream.class), anyMap())).thenReturn(mockResult);
+        when(barcodeReader.read(any(byte[].class), any(DecodeProfile.class))).thenReturn(mockResult);
 
-        Result result = barcodeService.read(mockFile, Collections.emptyMap());
+        Result result = barcodeService.read(mockFile, DecodeProfile.DEFAULT);
 
         assertNotNull(result);
         assertEquals(testData, result.getText());
-        verify(barcodeReader, times(1)).read(any(InputStream.class), anyMap());
+        verify(barcodeReader, times(1)).read(any(byte[].class), any(DecodeProfile.class));
+    }
+
+    @Test
+    void read_sameUploadTwice_shouldDecodeOnce() throws Exception {
+        MockMultipartFile mockFile = new MockMultipartFile("file", "frame.png", "image/png", new byte[]{1, 2, 3});
+        Result mockResult = new Result("conveyor", null, null, BarcodeFormat.CODE_128);
+        when(barcodeReader.read(any(byte[].class), any(DecodeProfile.class))).thenReturn(mockResult);
+
+        assertEquals("conveyor", barcodeService.read(mockFile, DecodeProfile.DEFAULT).getText());
+        assertEquals("conveyor", barcodeService.read(new byte[]{1, 2, 3}, DecodeProfile.DEFAULT).getText());
+
+        verify(barcodeReader, times(1)).read(any(byte[].class), any(DecodeProfile.class));
+    }
+
+    @Test
+    void read_rawBody_shouldDecodeBodyOfAnnouncedLength() throws Exception {
+        byte[] body = {1, 2, 3, 4};
+        Result mockResult = new Result("raw", null, null, BarcodeFormat.CODE_128);
+        when(barcodeReader.read(aryEq(body), any(DecodeProfile.class))).thenReturn(mockResult);
+
+        assertEquals("raw", barcodeService.read(new ByteArrayInputStream(body), body.length, DecodeProfile.DEFAULT).getText());
+        assertEquals("raw", barcodeService.read(new ByteArrayInputStream(body), -1, DecodeProfile.DEFAULT).getText());
+    }
+
+    @Test
+    void read_truncatedRawBody_shouldThrowEOFException() {
+        assertThrows(EOFException.class, () -> barcodeService.read(new ByteArrayInputStream(new byte[]{1, 2}), 10, DecodeProfile.DEFAULT));
+        verifyNoInteractions(barcodeReader);
+    }
+
+    @Test
+    void read_oversizedUpload_shouldBeRejectedBeforeBuffering() {
+        ReflectionTestUtils.setField(barcodeService, "maxReadBytes", 2L);
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[1000]);
+
+        assertThrows(ImageTooLargeException.class, () -> barcodeService.read(body, 1000, DecodeProfile.DEFAULT));
+        assertEquals(1000, body.available());
+        assertThrows(ImageTooLargeException.class, () -> barcodeService.read(body, -1, DecodeProfile.DEFAULT));
+        assertThrows(ImageTooLargeException.class, () -> barcodeService.read(new byte[3], DecodeProfile.DEFAULT));
+        assertThrows(ImageTooLargeException.class, () ->
+                barcodeService.read(new MockMultipartFile("file", "big.png", "image/png", new byte[3]), DecodeProfile.DEFAULT));
+        verifyNoInteractions(barcodeReader);
     }
 
     @Test
@@ -206,36 +336,111 @@ class BarcodeServiceTest {
         MockMultipartFile mockFile = new MockMultipartFile("file", "empty.png", "image/png", new byte[]{});
 
         // simulate NotFoundException from barcodeReader
-        when(barcodeReader.read(any(InputStream.class), anyMap())).thenThrow(NotFoundException.class);
+        when(barcodeReader.read(any(byte[].class), any(DecodeProfile.class))).thenThrow(NotFoundException.class);
 
-        assertThrows(NotFoundException.class, () -> barcodeService.read(mockFile, Collections.emptyMap()));
-        verify(barcodeReader, times(1)).read(any(InputStream.class), anyMap());
+        assertThrows(NotFoundException.class, () -> barcodeService.read(mockFile, DecodeProfile.DEFAULT));
+        verify(barcodeReader, times(1)).read(any(byte[].class), any(DecodeProfile.class));
     }
 
     @Test
     void generate_shouldThrowWriterException() throws Exception {
-        String data = "error-data";
+        // more data than the largest QR version can hold
+        String data = "error-data".repeat(1000);
         int width = 200, height = 200;
-        BarcodeType type = BarcodeType.QR;
-        Writer writer = mock(QRCodeWriter.class);
-
-        when((Writer)applicationContext.getBean(type.getWriterClass())).thenReturn(writer);
-        // simulate WriterException during barcode generation
-        when(barcodeGenerator.generate(data, width, height)).thenThrow(WriterException.class);
 
         assertThrows(WriterException.class, () -> barcodeService.generate("QR", data, width, height, false));
         verify(barcodeRepository, never()).save(any(BarcodeEntity.class)); // ensure no save attempt
     }
 
     @Test
-    void generate_shouldThrowIOExceptionOnImageWrite() throws Exception {
-        String data = "io-error";
-        int width = 200, height = 200;
-        BarcodeType type = BarcodeType.QR;
-        Writer writer = mock(QRCodeWriter.class);
+    void generate_shouldReturnDistinctBuffersPerCall() throws Exception {
+        byte[] first = barcodeService.generate("QR", "first", 200, 200, false).orElseThrow().barcode();
+        byte[] second = barcodeService.generate("QR", "second", 200, 200, false).orElseThrow().barcode();
+
+        assertNotSame(first, second);
+        assertEquals("first", decode(first));
+        assertEquals("second", decode(second));
+    }
+
+    @Test
+    void generate_sameSpecTwice_shouldEncodeOnce() throws Exception {
+        byte[] first = barcodeService.generate("QR", "cached", 200, 200, false).orElseThrow().barcode();
+        byte[] second = barcodeService.generate("qr", "cached", 200, 200, false).orElseThrow().barcode();
+
+        assertSame(first, second);
+        verify(qrCodeWriter, times(1)).encode(anyString(), any(BarcodeFormat.class), anyInt(), anyInt(), anyMap());
+    }
+
+    @Test
+    void generate_sameDataAtDifferentSizes_shouldEncodeOnce() throws Exception {
+        byte[] small = barcodeService.generate("QR", "resized", 200, 200, false).orElseThrow().barcode();
+        byte[] large = barcodeService.generate("QR", "resized", 600, 600, false).orElseThrow().barcode();
+        barcodeService.generate("QR", "resized", 300, 300, "svg", false);
+
+        assertEquals("resized", decode(small));
+        assertEquals("resized", decode(large));
+        assertEquals(600, ImageIO.read(new ByteArrayInputStream(large)).getWidth());
+        verify(qrCodeWriter, times(1)).encode(anyString(), any(BarcodeFormat.class), anyInt(), anyInt(), anyMap());
+    }
+
+    @Test
+    void generate_afterSymbologyReplaced_shouldEncodeWithNewWriter() throws Exception {
+        byte[] before = barcodeService.generate("QR", "replaced", 200, 200, false).orElseThrow().barcode();
+        QRCodeWriter replacement = spy(new QRCodeWriter());
+        symbologyRegistry.register(new SymbologyProvider() {
+            @Override
+            public Collection<Symbology> symbologies() {
+                return List.of(new Symbology("qr", BarcodeFormat.QR_CODE, replacement));
+            }
+        });
+
+        byte[] after = barcodeService.generate("QR", "replaced", 200, 200, false).orElseThrow().barcode();
+
+        assertNotSame(before, after);
+        verify(replacement, times(1)).encode(anyString(), any(BarcodeFormat.class), anyInt(), anyInt(), anyMap());
+    }
+
+    @Test
+    void generate_cacheHit_shouldStillStore() throws Exception {
+        BarcodeEntity entity = new BarcodeEntity(new byte[0]);
+        ReflectionTestUtils.setField(entity, "id", UUID.randomUUID());
+        when(barcodeRepository.save(any(BarcodeEntity.class))).thenReturn(entity);
+
+        barcodeService.generate("QR", "stored-twice", 200, 200, true);
+        barcodeService.generate("QR", "stored-twice", 200, 200, true);
+
+        verify(barcodeRepository, times(2)).save(any(BarcodeEntity.class));
+    }
+
+    @Test
+    void generate_svg_shouldReturnVectorImage() throws Exception {
+        byte[] svg = barcodeService.generate("QR", "vector", 300, 300, "svg", false).orElseThrow().barcode();
+
+        String document = new String(svg, java.nio.charset.StandardCharsets.UTF_8);
+        assertTrue(document.contains("<svg"));
+        assertTrue(document.contains("width=\"300\""));
+    }
+
+    @Test
+    void generate_storeNonPng_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> barcodeService.generate("QR", "vector", 300, 300, "pdf", true));
+        verify(barcodeRepository, never()).save(any(BarcodeEntity.class));
+    }
+
+    @Test
+    void generate_unknownFormat_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> barcodeService.generate("QR", "data", 300, 300, "gif", false));
+    }
+
+    @Test
+    void generate_negativeSize_shouldThrow() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> barcodeService.generate("CODE_128", "12345678", -1, 100, "png", false));
+        assertEquals("Requested dimensions can't be negative: -1x100", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> barcodeService.generate("QR", "data", 300, -300, "svg", false));
+    }
 
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        when((Writer)applicationContext.getBean(type.getWriterClass())).thenReturn(writer);
-        when(barcodeGenerator.generate(data, width, height)).thenReturn(image);
+    private static String decode(byte[] png) throws Exception {
+        return new BarcodeReader().read(new ByteArrayInputStream(png), new HashMap<>()).getText();
     }
 }
\ No newline at end of file
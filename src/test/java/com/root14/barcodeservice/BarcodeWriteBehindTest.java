@@ -0,0 +1,215 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.core.RenderSpec;
+import com.root14.barcodeservice.entity.BarcodeEntity;
+import com.root14.barcodeservice.service.BarcodeWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BarcodeWriteBehindTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<List<UUID>> batches = new CopyOnWriteArrayList<>();
+    private final List<List<UUID>> aliases = new CopyOnWriteArrayList<>();
+    private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BarcodeWriteBehind writeBehind;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals("barcode-write-behind")) {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            List<UUID> ids = new ArrayList<>();
+            for (Object entity : invocation.getArgument(1, Collection.class)) {
+                ids.add(((BarcodeEntity) entity).getId());
+            }
+            if (!invocation.getArgument(0, String.class).contains("spec_hash")) {
+                aliases.add(ids);
+                return new int[0][];
+            }
+            batches.add(ids);
+            writerThreads.add(Thread.currentThread().getName());
+            int[] inserted = new int[ids.size()];
+            Arrays.fill(inserted, 1);
+            return new int[][]{inserted};
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        writeBehind.close();
+    }
+
+    private void start(int capacity) {
+        writeBehind = new BarcodeWriteBehind(jdbcTemplate, mock(PlatformTransactionManager.class), capacity);
+        ReflectionTestUtils.setField(writeBehind, "flushIntervalMillis", 10L);
+        ReflectionTestUtils.setField(writeBehind, "offerTimeoutMillis", 10L);
+        writeBehind.start();
+    }
+
+    private static RenderSpec spec(String data) {
+        return new RenderSpec("qr", data, 200, 200, "png");
+    }
+
+    @Test
+    void enqueue_shouldBeVisibleUntilWritten() throws Exception {
+        start(16);
+
+        BarcodeEntity entity = writeBehind.enqueue(spec("queued"));
+
+        assertSame(entity, writeBehind.find(entity.getId()).orElseThrow());
+        assertSame(entity, writeBehind.findBySpecHash(BarcodeEntity.hash(spec("queued"))).orElseThrow());
+        assertNotNull(entity.getCreatedAt());
+
+        release.countDown();
+        writeBehind.close();
+
+        assertEquals(List.of(List.of(entity.getId())), batches);
+        assertTrue(writeBehind.find(entity.getId()).isEmpty());
+    }
+
+    @Test
+    void enqueue_sameSpec_shouldReturnQueuedRow() throws Exception {
+        start(16);
+
+        BarcodeEntity first = writeBehind.enqueue(spec("twice"));
+        BarcodeEntity second = writeBehind.enqueue(spec("twice"));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void close_shouldFlushQueuedRowsInBatches() throws Exception {
+        start(16);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(writeBehind.enqueue(spec("flush-" + i)).getId());
+        }
+
+        release.countDown();
+        writeBehind.close();
+
+        assertEquals(ids, batches.stream().flatMap(List::stream).toList());
+        assertTrue(batches.size() < ids.size()); // the first row is written alone, the rest queued up behind it
+        assertEquals(0, writeBehind.pending());
+    }
+
+    @Test
+    void enqueue_fullQueue_shouldWriteOnCallingThread() throws Exception {
+        start(1);
+        writeBehind.enqueue(spec("in-flight"));
+        while (writeBehind.pending() > 0) {
+            Thread.onSpinWait(); // wait for the writer to take it and block
+        }
+        writeBehind.enqueue(spec("queued"));
+
+        BarcodeEntity overflow = writeBehind.enqueue(spec("overflow"));
+
+        assertEquals(List.of(List.of(overflow.getId())), batches);
+        assertEquals(List.of(Thread.currentThread().getName()), writerThreads);
+        assertTrue(writeBehind.find(overflow.getId()).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_specStoredConcurrently_shouldStoreSkippedRowAsAlias() throws Exception {
+        List<UUID> found = new CopyOnWriteArrayList<>();
+        // rewritten batch inserts report no counts per row; the conflicting row is not found afterwards
+        doAnswer(invocation -> {
+            Collection<BarcodeEntity> rows = invocation.getArgument(1, Collection.class);
+            rows.stream().filter(row -> !row.getRenderSpec().data().equals("stored-elsewhere")).forEach(row -> found.add(row.getId()));
+            int[] unknown = new int[rows.size()];
+            Arrays.fill(unknown, Statement.SUCCESS_NO_INFO);
+            return new int[][]{unknown};
+        }).when(jdbcTemplate).batchUpdate(contains("spec_hash"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        doAnswer(invocation -> found).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+        start(16);
+
+        writeBehind.enqueue(spec("inserted"));
+        BarcodeEntity skipped = writeBehind.enqueue(spec("stored-elsewhere"));
+        release.countDown();
+        writeBehind.close();
+
+        assertEquals(List.of(List.of(skipped.getId())), aliases);
+        assertTrue(writeBehind.find(skipped.getId()).isEmpty());
+    }
+
+    @Test
+    void write_permanentFailure_shouldDropOnlyTheBadRow() throws Exception {
+        doAnswer(invocation -> {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            Collection<?> rows = invocation.getArgument(1, Collection.class);
+            if (rows.stream().anyMatch(row -> ((BarcodeEntity) row).getRenderSpec().data().equals("bad"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            batches.add(rows.stream().map(row -> ((BarcodeEntity) row).getId()).toList());
+            return new int[][]{};
+        }).when(jdbcTemplate).batchUpdate(contains("spec_hash"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        doAnswer(invocation -> batches.stream().flatMap(List::stream).toList())
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+        start(16);
+        List<UUID> good = new ArrayList<>();
+        good.add(writeBehind.enqueue(spec("good-0")).getId());
+        while (writeBehind.pending() > 0) {
+            Thread.onSpinWait(); // wait for the writer to take it and block, the next two are written together
+        }
+        BarcodeEntity bad = writeBehind.enqueue(spec("bad"));
+        good.add(writeBehind.enqueue(spec("good-1")).getId());
+
+        release.countDown();
+        writeBehind.close();
+
+        assertEquals(good, batches.stream().flatMap(List::stream).toList());
+        assertTrue(writeBehind.find(bad.getId()).isEmpty());
+    }
+
+    @Test
+    void write_transientFailure_shouldRetryBatch() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new QueryTimeoutException("statement timeout");
+            }
+            batches.add(List.of());
+            int[] inserted = new int[invocation.getArgument(1, Collection.class).size()];
+            Arrays.fill(inserted, 1);
+            return new int[][]{inserted};
+        }).when(jdbcTemplate).batchUpdate(contains("spec_hash"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        start(16);
+
+        writeBehind.enqueue(spec("retried"));
+        writeBehind.close();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, batches.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.cache.DecodeCache;
+import com.root14.barcodeservice.cache.ImageCache;
+import com.root14.barcodeservice.cache.MatrixCache;
+import com.root14.barcodeservice.cache.StoredBarcodeCache;
+import com.root14.barcodeservice.core.BarcodeReader;
+import com.root14.barcodeservice.core.SymbologyRegistry;
+import com.root14.barcodeservice.dto.BatchItemResult;
+import com.root14.barcodeservice.dto.GenerateSpec;
+import com.root14.barcodeservice.service.BarcodeService;
+import com.root14.barcodeservice.service.BatchGenerationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchGenerationServiceTest {
+
+    private ForkJoinPool pool;
+    private BatchGenerationService batchGenerationService;
+
+    @BeforeEach
+    void setUp() {
+        BarcodeService barcodeService = new BarcodeService(SymbologyRegistry.withBuiltIns(), null, new ImageCache(0), new MatrixCache(0), new BarcodeReader(), new DecodeCache(0, 0, 0), new StoredBarcodeCache(0), null);
+        ReflectionTestUtils.setField(barcodeService, "profile", "default");
+
+        pool = new ForkJoinPool(4);
+        batchGenerationService = new BatchGenerationService(barcodeService, pool);
+        ReflectionTestUtils.setField(batchGenerationService, "maxItems", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void generate_shouldDeliverEveryItemOnce() throws Exception {
+        List<GenerateSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            specs.add(new GenerateSpec("qr", "item-" + i, 200, 200));
+        }
+
+        Map<Integer, BatchItemResult> results = new HashMap<>();
+        batchGenerationService.generate(specs, false, result -> assertNull(results.put(result.index(), result)));
+
+        assertEquals(specs.size(), results.size());
+        BarcodeReader reader = new BarcodeReader();
+        for (int i = 0; i < specs.size(); i++) {
+            BatchItemResult result = results.get(i);
+            assertTrue(result.isSuccess());
+            String text = reader.read(new ByteArrayInputStream(result.barcode()), new HashMap<>()).getText();
+            assertEquals("item-" + i, text);
+        }
+    }
+
+    @Test
+    void generate_invalidItems_shouldNotAbortBatch() throws Exception {
+        List<GenerateSpec> specs = List.of(
+                new GenerateSpec("qr", "ok", null, null),
+                new GenerateSpec("unknown", "bad type", 100, 100),
+                new GenerateSpec("ean-13", "not digits", 200, 100),
+                new GenerateSpec("qr", null, 100, 100),
+                new GenerateSpec("qr", "x".repeat(10_000), 100, 100));
+
+        Map<Integer, BatchItemResult> results = new HashMap<>();
+        batchGenerationService.generate(specs, false, result -> results.put(result.index(), result));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("INVALID_ARGUMENT", results.get(1).errorCode());
+        assertEquals("INVALID_ARGUMENT", results.get(2).errorCode());
+        assertEquals("INVALID_ARGUMENT", results.get(3).errorCode());
+        assertEquals("BARCODE_ENCODING_ERROR", results.get(4).errorCode());
+    }
+
+    @Test
+    void generate_sinkFailure_shouldStopBatch() {
+        List<GenerateSpec> specs = Collections.nCopies(50, new GenerateSpec("qr", "same", 100, 100));
+
+        assertThrows(IOException.class, () -> batchGenerationService.generate(specs, false, result -> {
+            throw new IOException("client went away");
+        }));
+    }
+
+    @Test
+    void generate_tooManyItems_shouldThrow() {
+        List<GenerateSpec> specs = Collections.nCopies(1001, new GenerateSpec("qr", "same", 100, 100));
+
+        assertThrows(IllegalArgumentException.class, () -> batchGenerationService.generate(specs, false, result -> {
+        }));
+    }
+}
@@ -0,0 +1,140 @@
+package com.root14.barcodeservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.root14.barcodeservice.controller.BatchGeneratorController;
+import com.root14.barcodeservice.dto.BatchItemResult;
+import com.root14.barcodeservice.dto.ImageObject;
+import com.root14.barcodeservice.exception.GlobalExceptionHandler;
+import com.root14.barcodeservice.service.BatchGenerationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BatchGeneratorControllerTest {
+
+    @Mock
+    private BatchGenerationService batchGenerationService;
+
+    private MockMvc mockMvc;
+
+    AutoCloseable closeable;
+
+    private final byte[] png = "png-bytes".getBytes();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        mockMvc = MockMvcBuilders.standaloneSetup(new BatchGeneratorController(batchGenerationService, objectMapper))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        doAnswer(invocation -> {
+            BatchGenerationService.ResultSink sink = invocation.getArgument(2);
+            sink.accept(BatchItemResult.success(1, new ImageObject(null, png, Instant.now())));
+            sink.accept(BatchItemResult.failure(0, "INVALID_ARGUMENT", "Unknown barcode type: nope"));
+            return null;
+        }).when(batchGenerationService).generate(anyList(), anyBoolean(), any());
+        doCallRealMethod().when(batchGenerationService).validate(any());
+        ReflectionTestUtils.setField(batchGenerationService, "maxItems", 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void generateBatch_ndjson_shouldStreamOneLinePerItem() throws Exception {
+        MvcResult started = mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"type\":\"nope\",\"data\":\"a\"},{\"type\":\"qr\",\"data\":\"b\"}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(1, objectMapper.readTree(lines[0]).get("index").asInt());
+        assertEquals("INVALID_ARGUMENT", objectMapper.readTree(lines[1]).get("errorCode").asText());
+    }
+
+    @Test
+    void generateBatch_zip_shouldContainImagesAndErrors() throws Exception {
+        MvcResult started = mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT, "application/zip")
+                        .content("[{\"type\":\"nope\",\"data\":\"a\"},{\"type\":\"qr\",\"data\":\"b\"}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(body))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                if (entry.getName().equals("1.png")) {
+                    assertArrayEquals(png, zip.readAllBytes());
+                }
+            }
+        }
+        assertEquals(List.of("1.png", "errors.ndjson"), names);
+    }
+
+    @Test
+    void generateBatch_emptyBatch_shouldBeRejected() throws Exception {
+        mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_ARGUMENT"));
+    }
+
+    @Test
+    void generateBatch_tooManyItems_shouldBeRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"type\":\"qr\",\"data\":\"a\"},{\"type\":\"qr\",\"data\":\"b\"},{\"type\":\"qr\",\"data\":\"c\"}]"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_ARGUMENT"))
+                .andExpect(jsonPath("$.message").value("Batch exceeds the maximum of 2 items."));
+        verify(batchGenerationService, never()).generate(anyList(), anyBoolean(), any());
+    }
+}
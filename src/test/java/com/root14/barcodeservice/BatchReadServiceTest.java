@@ -0,0 +1,159 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.cache.DecodeCache;
+import com.root14.barcodeservice.cache.ImageCache;
+import com.root14.barcodeservice.cache.MatrixCache;
+import com.root14.barcodeservice.cache.StoredBarcodeCache;
+import com.root14.barcodeservice.core.BarcodeReader;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.core.SymbologyRegistry;
+import com.root14.barcodeservice.dto.BatchReadResult;
+import com.root14.barcodeservice.service.BarcodeService;
+import com.root14.barcodeservice.service.BatchReadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchReadServiceTest {
+
+    private ForkJoinPool pool;
+    private BarcodeService barcodeService;
+    private BatchReadService batchReadService;
+
+    @BeforeEach
+    void setUp() {
+        barcodeService = new BarcodeService(SymbologyRegistry.withBuiltIns(), null, new ImageCache(0), new MatrixCache(0), new BarcodeReader(), new DecodeCache(0, 0, 0), new StoredBarcodeCache(0), null);
+        ReflectionTestUtils.setField(barcodeService, "profile", "default");
+
+        pool = new ForkJoinPool(2);
+        batchReadService = new BatchReadService(barcodeService, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void read_zip_shouldDeliverEveryEntryOnce() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("scans/"));
+            zip.closeEntry();
+            for (int i = 0; i < 30; i++) {
+                zip.putNextEntry(new ZipEntry("scans/" + i + ".png"));
+                zip.write(qr("doc-" + i));
+                zip.closeEntry();
+            }
+        }
+
+        Map<Integer, BatchReadResult> results = new HashMap<>();
+        batchReadService.read(batchReadService.zipEntries(new ByteArrayInputStream(archive.toByteArray())),
+                DecodeProfile.QR_ONLY, result -> assertNull(results.put(result.index(), result)));
+
+        assertEquals(30, results.size());
+        for (int i = 0; i < 30; i++) {
+            BatchReadResult result = results.get(i);
+            assertTrue(result.isSuccess());
+            assertEquals("scans/" + i + ".png", result.name());
+            assertEquals("doc-" + i, result.result().text());
+        }
+    }
+
+    @Test
+    void read_invalidEntries_shouldNotAbortBatch() throws Exception {
+        List<MockMultipartFile> files = List.of(
+                new MockMultipartFile("data", "ok.png", "image/png", qr("ok")),
+                new MockMultipartFile("data", "notes.txt", "text/plain", "not an image".getBytes()),
+                new MockMultipartFile("data", "blank.png", "image/png", blank()));
+
+        Map<Integer, BatchReadResult> results = new HashMap<>();
+        batchReadService.read(batchReadService.multipartEntries(List.copyOf(files)), DecodeProfile.DEFAULT,
+                result -> results.put(result.index(), result));
+
+        assertEquals("ok", results.get(0).result().text());
+        assertEquals("INVALID_ARGUMENT", results.get(1).errorCode());
+        assertEquals("notes.txt", results.get(1).name());
+        assertEquals("BARCODE_NOT_FOUND", results.get(2).errorCode());
+    }
+
+    @Test
+    void read_oversizedEntries_shouldBeSkippedUnread() throws Exception {
+        ReflectionTestUtils.setField(batchReadService, "maxEntryBytes", 10_000L);
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("bomb.png"));
+            // compresses to almost nothing
+            zip.write(new byte[1_000_000]);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("ok.png"));
+            zip.write(qr("after-bomb"));
+            zip.closeEntry();
+        }
+
+        Map<Integer, BatchReadResult> results = new HashMap<>();
+        batchReadService.read(batchReadService.zipEntries(new ByteArrayInputStream(archive.toByteArray())),
+                DecodeProfile.QR_ONLY, result -> results.put(result.index(), result));
+
+        assertEquals("IMAGE_TOO_LARGE", results.get(0).errorCode());
+        assertEquals("after-bomb", results.get(1).result().text());
+    }
+
+    @Test
+    void read_shouldBoundEntriesInFlight() throws Exception {
+        byte[] image = qr("same");
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+        int maxInFlight = pool.getParallelism() * 4;
+
+        batchReadService.read(() -> {
+            // the source is only asked for more once a slot is free
+            assertTrue(read.get() - delivered.get() <= maxInFlight);
+            return read.incrementAndGet() <= 100 ? new BatchReadService.Entry(null, image) : null;
+        }, DecodeProfile.QR_ONLY, result -> delivered.incrementAndGet());
+
+        assertEquals(100, delivered.get());
+    }
+
+    @Test
+    void read_sourceFailure_shouldStopBatch() {
+        assertThrows(IOException.class, () -> batchReadService.read(() -> {
+            throw new IOException("truncated upload");
+        }, DecodeProfile.DEFAULT, result -> {
+        }));
+    }
+
+    private byte[] qr(String text) throws Exception {
+        return barcodeService.generate("qr", text, 200, 200, false).orElseThrow().barcode();
+    }
+
+    private static byte[] blank() throws IOException {
+        BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 200, 200);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,170 @@
+package com.root14.barcodeservice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.zxing.BarcodeFormat;
+import com.root14.barcodeservice.controller.BatchReaderController;
+import com.root14.barcodeservice.core.BarcodeResult;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.dto.BatchReadResult;
+import com.root14.barcodeservice.exception.GlobalExceptionHandler;
+import com.root14.barcodeservice.service.BatchReadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BatchReaderControllerTest {
+
+    @Mock
+    private BatchReadService batchReadService;
+
+    private MockMvc mockMvc;
+
+    AutoCloseable closeable;
+
+    // the names of the entries the mocked service pulled from the upload
+    private final List<String> names = new ArrayList<>();
+    // the names of the entries the source reported as too large
+    private final List<String> oversized = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        mockMvc = MockMvcBuilders.standaloneSetup(new BatchReaderController(batchReadService, objectMapper))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        // the sources read the real upload
+        ReflectionTestUtils.setField(batchReadService, "maxEntryBytes", 1024L);
+        when(batchReadService.zipEntries(any())).thenCallRealMethod();
+        when(batchReadService.multipartEntries(anyList())).thenCallRealMethod();
+        doAnswer(invocation -> {
+            BatchReadService.EntrySource source = invocation.getArgument(0);
+            BatchReadService.ResultSink sink = invocation.getArgument(2);
+            BatchReadService.Entry entry;
+            while ((entry = source.next()) != null) {
+                names.add(entry.name());
+                if (entry.data() == null) {
+                    oversized.add(entry.name());
+                }
+            }
+            sink.accept(BatchReadResult.success(1, "b.png", new BarcodeResult(1L, "sku-1", BarcodeFormat.QR_CODE)));
+            sink.accept(BatchReadResult.failure(0, "a.png", "BARCODE_NOT_FOUND", "Barcode not found in the provided data."));
+            return null;
+        }).when(batchReadService).read(any(), eq(DecodeProfile.QR_ONLY), any());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void readBatch_multipart_shouldStreamOneLinePerEntry() throws Exception {
+        MvcResult started = mockMvc.perform(multipart("/read/batch")
+                        .file(new MockMultipartFile("data", "a.png", "image/png", new byte[]{1}))
+                        .file(new MockMultipartFile("data", "b.png", "image/png", new byte[]{2}))
+                        .param("profile", "qr-only"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = ndjson(started);
+        assertEquals(List.of("a.png", "b.png"), names);
+        assertEquals(2, lines.length);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode success = objectMapper.readTree(lines[0]);
+        assertEquals(1, success.get("index").asInt());
+        assertEquals("b.png", success.get("name").asText());
+        assertEquals("sku-1", success.get("text").asText());
+        assertEquals("QR_CODE", success.get("barcodeFormat").asText());
+        assertFalse(success.has("errorCode"));
+
+        JsonNode failure = objectMapper.readTree(lines[1]);
+        assertEquals("BARCODE_NOT_FOUND", failure.get("errorCode").asText());
+        assertFalse(failure.has("text"));
+    }
+
+    @Test
+    void readBatch_multipartOversizedPart_shouldBeReportedAlone() throws Exception {
+        MvcResult started = mockMvc.perform(multipart("/read/batch")
+                        .file(new MockMultipartFile("data", "a.png", "image/png", new byte[]{1}))
+                        .file(new MockMultipartFile("data", "huge.png", "image/png", new byte[1025]))
+                        .file(new MockMultipartFile("data", "b.png", "image/png", new byte[]{2}))
+                        .param("profile", "qr-only"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(2, ndjson(started).length);
+        assertEquals(List.of("a.png", "huge.png", "b.png"), names);
+        assertEquals(List.of("huge.png"), oversized);
+    }
+
+    @Test
+    void readBatch_zip_shouldReadEveryFileEntry() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("scans/"));
+            zip.closeEntry();
+            for (String name : List.of("scans/a.png", "scans/b.png", "scans/c.png")) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(name.getBytes());
+                zip.closeEntry();
+            }
+        }
+
+        MvcResult started = mockMvc.perform(post("/read/batch")
+                        .contentType("application/zip")
+                        .param("profile", "qr-only")
+                        .content(archive.toByteArray()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(2, ndjson(started).length);
+        assertEquals(List.of("scans/a.png", "scans/b.png", "scans/c.png"), names);
+    }
+
+    @Test
+    void readBatch_unknownProfile_shouldBeRejected() throws Exception {
+        mockMvc.perform(post("/read/batch")
+                        .contentType("application/zip")
+                        .param("profile", "nope")
+                        .content(new byte[0]))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_ARGUMENT"));
+    }
+
+    private String[] ndjson(MvcResult started) throws Exception {
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+    }
+}
@@ -0,0 +1,173 @@
+package com.root14.barcodeservice;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.root14.barcodeservice.cache.CacheStatistics;
+import com.root14.barcodeservice.cache.DecodeCache;
+import com.root14.barcodeservice.cache.DecodeKey;
+import com.root14.barcodeservice.core.DecodeProfile;
+import com.root14.barcodeservice.exception.DecodeTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecodeCacheTest {
+
+    private static final byte[] FRAME = "frame-1".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void decode_sameBytes_shouldDecodeOnce() throws Exception {
+        DecodeCache cache = new DecodeCache(1024 * 1024, 60_000, 60_000);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodeCache.Decoder decoder = () -> {
+            decodes.incrementAndGet();
+            return new Result("42", null, null, BarcodeFormat.QR_CODE);
+        };
+
+        Result first = cache.decode(FRAME, DecodeProfile.DEFAULT, decoder);
+        Result second = cache.decode(FRAME.clone(), DecodeProfile.DEFAULT, decoder);
+
+        assertSame(first, second);
+        assertEquals(1, decodes.get());
+        CacheStatistics statistics = cache.statistics();
+        assertEquals("decode", statistics.name());
+        assertEquals(1, statistics.hitCount());
+    }
+
+    @Test
+    void decode_otherProfileOrBytes_shouldMiss() throws Exception {
+        DecodeCache cache = new DecodeCache(1024 * 1024, 60_000, 60_000);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodeCache.Decoder decoder = () -> new Result("n" + decodes.incrementAndGet(), null, null, BarcodeFormat.QR_CODE);
+
+        cache.decode(FRAME, DecodeProfile.DEFAULT, decoder);
+        cache.decode(FRAME, DecodeProfile.QR_ONLY, decoder);
+        cache.decode("frame-2".getBytes(StandardCharsets.UTF_8), DecodeProfile.DEFAULT, decoder);
+
+        assertEquals(3, decodes.get());
+    }
+
+    @Test
+    void decode_notFound_shouldBeCachedUntilItsTtlExpires() throws Exception {
+        DecodeCache cache = new DecodeCache(1024 * 1024, 60_000, 200);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodeCache.Decoder decoder = () -> {
+            decodes.incrementAndGet();
+            throw NotFoundException.getNotFoundInstance();
+        };
+
+        assertThrows(NotFoundException.class, () -> cache.decode(FRAME, DecodeProfile.DEFAULT, decoder));
+        assertThrows(NotFoundException.class, () -> cache.decode(FRAME, DecodeProfile.DEFAULT, decoder));
+        assertEquals(1, decodes.get());
+
+        Thread.sleep(400);
+        assertThrows(NotFoundException.class, () -> cache.decode(FRAME, DecodeProfile.DEFAULT, decoder));
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void decode_ioException_shouldNotBeCached() throws Exception {
+        DecodeCache cache = new DecodeCache(1024 * 1024, 60_000, 60_000);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodeCache.Decoder decoder = () -> {
+            if (decodes.incrementAndGet() == 1) {
+                throw new IOException("truncated upload");
+            }
+            return new Result("42", null, null, BarcodeFormat.QR_CODE);
+        };
+
+        IOException exception = assertThrows(IOException.class, () -> cache.decode(FRAME, DecodeProfile.DEFAULT, decoder));
+        assertEquals("truncated upload", exception.getMessage());
+        assertEquals("42", cache.decode(FRAME, DecodeProfile.DEFAULT, decoder).getText());
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void decode_timeout_shouldNotBeCached() throws Exception {
+        DecodeCache cache = new DecodeCache(1024 * 1024, 60_000, 60_000);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodeCache.Decoder decoder = () -> {
+            if (decodes.incrementAndGet() == 1) {
+                throw new DecodeTimeoutException("No barcode found within the strategy budget of 0 ms.");
+            }
+            return new Result("42", null, null, BarcodeFormat.QR_CODE);
+        };
+
+        assertThrows(DecodeTimeoutException.class, () -> cache.decode(FRAME, DecodeProfile.DEFAULT, decoder));
+        assertEquals("42", cache.decode(FRAME, DecodeProfile.DEFAULT, decoder).getText());
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void decode_slowDecode_shouldBeSharedAndNotBlockOtherFrames() throws Exception {
+        DecodeCache cache = new DecodeCache(1024 * 1024, 60_000, 60_000);
+        AtomicInteger decodes = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DecodeCache.Decoder slow = () -> {
+            decodes.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Result("slow", null, null, BarcodeFormat.QR_CODE);
+        };
+
+        CompletableFuture<Result> first = CompletableFuture.supplyAsync(() -> decodeUnchecked(cache, FRAME, slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Result> second = CompletableFuture.supplyAsync(() -> decodeUnchecked(cache, FRAME.clone(), slow));
+
+        // decoding another frame does not wait for the slow one
+        Result other = cache.decode("frame-2".getBytes(StandardCharsets.UTF_8), DecodeProfile.DEFAULT,
+                () -> new Result("fast", null, null, BarcodeFormat.QR_CODE));
+        assertEquals("fast", other.getText());
+        assertFalse(first.isDone());
+
+        release.countDown();
+        assertEquals("slow", first.get(5, TimeUnit.SECONDS).getText());
+        assertSame(first.get(), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, decodes.get());
+    }
+
+    @Test
+    void zeroBudget_shouldDisableCaching() throws Exception {
+        DecodeCache cache = new DecodeCache(0, 60_000, 60_000);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodeCache.Decoder decoder = () -> new Result("n" + decodes.incrementAndGet(), null, null, BarcodeFormat.QR_CODE);
+
+        cache.decode(FRAME, DecodeProfile.DEFAULT, decoder);
+        cache.decode(FRAME, DecodeProfile.DEFAULT, decoder);
+
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void key_shouldMatchMurmur3ReferenceValues() {
+        // reference values of MurmurHash3_x64_128 with seed 0
+        DecodeKey empty = DecodeKey.of(new byte[0], DecodeProfile.DEFAULT);
+        assertEquals(0L, empty.hashHigh());
+        assertEquals(0L, empty.hashLow());
+
+        DecodeKey fox = DecodeKey.of("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII), DecodeProfile.DEFAULT);
+        assertEquals(0xe34bbc7bbc071b6cL, fox.hashHigh());
+        assertEquals(0x7a433ca9c49a9347L, fox.hashLow());
+    }
+
+    private static Result decodeUnchecked(DecodeCache cache, byte[] image, DecodeCache.Decoder decoder) {
+        try {
+            return cache.decode(image, DecodeProfile.DEFAULT, decoder);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.cache.CacheStatistics;
+import com.root14.barcodeservice.cache.ImageCache;
+import com.root14.barcodeservice.core.BarcodeType;
+import com.root14.barcodeservice.core.RenderSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageCacheTest {
+
+    @Test
+    void get_afterPut_shouldReturnSameBytesAndCountHit() {
+        ImageCache cache = new ImageCache(1024 * 1024);
+        RenderSpec spec = new RenderSpec(BarcodeType.QR, "sku-1", 200, 200);
+        byte[] image = new byte[100];
+
+        assertNull(cache.get(spec));
+        cache.put(spec, image);
+
+        assertSame(image, cache.get(new RenderSpec(BarcodeType.QR, "sku-1", 200, 200)));
+        CacheStatistics statistics = cache.statistics();
+        assertEquals(1, statistics.hitCount());
+        assertEquals(1, statistics.missCount());
+    }
+
+    @Test
+    void get_differentSize_shouldMiss() {
+        ImageCache cache = new ImageCache(1024 * 1024);
+        cache.put(new RenderSpec(BarcodeType.QR, "sku-1", 200, 200), new byte[100]);
+
+        assertNull(cache.get(new RenderSpec(BarcodeType.QR, "sku-1", 300, 300)));
+    }
+
+    @Test
+    void put_overBudget_shouldEvictByWeight() {
+        ImageCache cache = new ImageCache(10_000);
+        for (int i = 0; i < 50; i++) {
+            cache.put(new RenderSpec(BarcodeType.QR, "sku-" + i, 200, 200), new byte[1000]);
+        }
+
+        CacheStatistics statistics = cache.statistics();
+        assertTrue(statistics.weightedSize() <= 10_000, "weighted size " + statistics.weightedSize());
+        assertTrue(statistics.evictionCount() > 0);
+        assertEquals(10_000, statistics.maximumWeight());
+    }
+
+    @Test
+    void zeroBudget_shouldDisableCaching() {
+        ImageCache cache = new ImageCache(0);
+        RenderSpec spec = new RenderSpec(BarcodeType.QR, "sku-1", 200, 200);
+        cache.put(spec, new byte[10]);
+
+        assertNull(cache.get(spec));
+    }
+}
@@ -0,0 +1,76 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.service.LargeObjectMigration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LargeObjectMigrationTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final LargeObjectMigration migration = new LargeObjectMigration(jdbcTemplate, transactionManager);
+
+    @Test
+    void run_oidColumn_shouldConvertAndUnlinkLargeObjects() {
+        when(jdbcTemplate.queryForList(contains("information_schema.columns"), eq(String.class))).thenReturn(List.of("oid"));
+        when(jdbcTemplate.queryForObject(contains("lo_unlink"), eq(Integer.class))).thenReturn(3);
+
+        migration.run();
+
+        verify(jdbcTemplate).execute(contains("pg_advisory_xact_lock"));
+        verify(jdbcTemplate).execute("ALTER TABLE barcodes ALTER COLUMN barcode TYPE bytea USING lo_get(barcode)");
+        verify(jdbcTemplate).queryForObject(contains("lo_unlink"), eq(Integer.class));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void run_byteaColumn_shouldDoNothing() {
+        when(jdbcTemplate.queryForList(contains("information_schema.columns"), eq(String.class))).thenReturn(List.of("bytea"));
+
+        migration.run();
+
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER"));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class));
+    }
+
+    @Test
+    void run_noTable_shouldDoNothing() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        migration.run();
+
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER"));
+    }
+
+    @Test
+    void run_unlinkOrphansEnabled_shouldUnlinkUnreferencedLargeObjects() {
+        ReflectionTestUtils.setField(migration, "unlinkOrphans", true);
+        when(jdbcTemplate.queryForList(contains("information_schema.columns"), eq(String.class))).thenReturn(List.of("bytea"));
+        when(jdbcTemplate.queryForList(contains("pg_attribute"), eq(String.class)))
+                .thenReturn(List.of("NOT EXISTS (SELECT 1 FROM public.documents WHERE scan = m.oid)"));
+        when(jdbcTemplate.queryForObject(contains("pg_largeobject_metadata m"), eq(Integer.class))).thenReturn(2);
+
+        migration.run();
+
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER"));
+        verify(jdbcTemplate).queryForObject("SELECT count(lo_unlink(m.oid)) FROM pg_largeobject_metadata m"
+                + " WHERE NOT EXISTS (SELECT 1 FROM public.documents WHERE scan = m.oid)", Integer.class);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void run_unlinkOrphansDisabled_shouldNotLookForOrphans() {
+        when(jdbcTemplate.queryForList(contains("information_schema.columns"), eq(String.class))).thenReturn(List.of("oid"));
+
+        migration.run();
+
+        verify(jdbcTemplate, never()).queryForList(contains("pg_attribute"), eq(String.class));
+        verify(jdbcTemplate, never()).queryForObject(contains("pg_largeobject_metadata m"), eq(Integer.class));
+    }
+}
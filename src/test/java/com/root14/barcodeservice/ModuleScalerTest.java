@@ -0,0 +1,63 @@
+package com.root14.barcodeservice;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Writer;
+import com.google.zxing.aztec.AztecWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.datamatrix.DataMatrixWriter;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.oned.Code39Writer;
+import com.google.zxing.oned.EAN13Writer;
+import com.google.zxing.oned.EAN8Writer;
+import com.google.zxing.oned.UPCAWriter;
+import com.google.zxing.oned.UPCEWriter;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.root14.barcodeservice.core.ModuleScaler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleScalerTest {
+
+    private static final int[][] SIZES = {{400, 400}, {250, 250}, {300, 100}, {123, 457}, {1000, 37}, {10, 10}};
+
+    @Test
+    void scale_shouldMatchDirectEncodeForTwoDimensionalSymbols() throws Exception {
+        assertMatchesDirectEncode(new QRCodeWriter(), BarcodeFormat.QR_CODE, "https://example.com/scale");
+        assertMatchesDirectEncode(new DataMatrixWriter(), BarcodeFormat.DATA_MATRIX, "scale me");
+        assertMatchesDirectEncode(new AztecWriter(), BarcodeFormat.AZTEC, "scale me");
+    }
+
+    @Test
+    void scale_shouldMatchDirectEncodeForLinearBarcodes() throws Exception {
+        assertMatchesDirectEncode(new Code128Writer(), BarcodeFormat.CODE_128, "12345678");
+        assertMatchesDirectEncode(new Code39Writer(), BarcodeFormat.CODE_39, "SCALE-39");
+    }
+
+    @Test
+    void scale_shouldMatchDirectEncodeForOddQuietZones() throws Exception {
+        // UPC and EAN have a 9 module quiet zone, which the native row splits 4 to 5
+        assertMatchesDirectEncode(new EAN13Writer(), BarcodeFormat.EAN_13, "123456789012");
+        assertMatchesDirectEncode(new EAN8Writer(), BarcodeFormat.EAN_8, "1234567");
+        assertMatchesDirectEncode(new UPCAWriter(), BarcodeFormat.UPC_A, "12345678901");
+        assertMatchesDirectEncode(new UPCEWriter(), BarcodeFormat.UPC_E, "0123456");
+    }
+
+    @Test
+    void scale_shouldNotModifyTheNativeMatrix() throws Exception {
+        BitMatrix modules = new QRCodeWriter().encode("native", BarcodeFormat.QR_CODE, 0, 0);
+        BitMatrix copy = modules.clone();
+
+        ModuleScaler.scale(modules, 400, 400);
+
+        assertEquals(copy, modules);
+    }
+
+    private static void assertMatchesDirectEncode(Writer writer, BarcodeFormat format, String data) throws Exception {
+        BitMatrix modules = writer.encode(data, format, 0, 0);
+        for (int[] size : SIZES) {
+            BitMatrix expected = writer.encode(data, format, size[0], size[1]);
+            assertEquals(expected, ModuleScaler.scale(modules, size[0], size[1]), format + " at " + size[0] + "x" + size[1]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.root14.barcodeservice;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.root14.barcodeservice.core.PngMatrixWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PngMatrixWriterTest {
+
+    @Test
+    void toByteArray_shouldMatchMatrixToImageWriterPixels() throws WriterException, IOException {
+        BitMatrix matrix = new QRCodeWriter().encode("pixel perfect", BarcodeFormat.QR_CODE, 403, 403);
+
+        BufferedImage expected = MatrixToImageWriter.toBufferedImage(matrix);
+        BufferedImage actual = ImageIO.read(new ByteArrayInputStream(PngMatrixWriter.toByteArray(matrix)));
+
+        assertImagesEqual(expected, actual);
+    }
+
+    @Test
+    void toByteArray_oddWidth_shouldKeepTrailingBits() throws IOException {
+        // widths that are not multiples of 8 or 32 exercise the partial last byte of each row
+        BitMatrix matrix = new BitMatrix(37, 5);
+        matrix.set(0, 0);
+        matrix.set(31, 1);
+        matrix.set(32, 2);
+        matrix.set(36, 4);
+
+        BufferedImage actual = ImageIO.read(new ByteArrayInputStream(PngMatrixWriter.toByteArray(matrix)));
+
+        assertImagesEqual(MatrixToImageWriter.toBufferedImage(matrix), actual);
+    }
+
+    @Test
+    void toByteArray_withConfig_shouldUseConfiguredPalette() throws IOException {
+        BitMatrix matrix = new BitMatrix(2, 1);
+        matrix.set(0, 0);
+        MatrixToImageConfig config = new MatrixToImageConfig(0xFF112233, 0x00FFFFFF);
+
+        BufferedImage actual = ImageIO.read(new ByteArrayInputStream(PngMatrixWriter.toByteArray(matrix, config)));
+
+        assertEquals(0xFF112233, actual.getRGB(0, 0));
+        // off colour is fully transparent, so only the alpha channel is significant
+        assertEquals(0, actual.getRGB(1, 0) >>> 24);
+    }
+
+    @Test
+    void toByteArray_shouldBeMuchSmallerThanImageIo() throws WriterException {
+        BitMatrix matrix = new QRCodeWriter().encode("size check", BarcodeFormat.QR_CODE, 800, 800);
+
+        byte[] png = PngMatrixWriter.toByteArray(matrix);
+
+        // 1 bit per pixel before compression
+        assertTrue(png.length < 800 * 800 / 8, "unexpected PNG size " + png.length);
+    }
+
+    private static void assertImagesEqual(BufferedImage expected, BufferedImage actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+}
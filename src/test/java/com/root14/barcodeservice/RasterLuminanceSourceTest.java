@@ -0,0 +1,91 @@
+package com.root14.barcodeservice;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.root14.barcodeservice.core.RasterLuminanceSource;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RasterLuminanceSourceTest {
+
+    private static final int[] IMAGE_TYPES = {
+            BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_BGR,
+            BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_BYTE_INDEXED, BufferedImage.TYPE_USHORT_GRAY,
+            BufferedImage.TYPE_USHORT_565_RGB, BufferedImage.TYPE_INT_ARGB_PRE
+    };
+
+    @Test
+    void of_shouldMatchBufferedImageLuminanceSourceForEveryImageType() {
+        for (int type : IMAGE_TYPES) {
+            BufferedImage image = randomImage(type, 37, 23);
+
+            assertSameLuminance(new BufferedImageLuminanceSource(image), RasterLuminanceSource.of(image, null), "type " + type);
+        }
+    }
+
+    @Test
+    void of_subimage_shouldHonourRasterOffsets() {
+        BufferedImage parent = randomImage(BufferedImage.TYPE_3BYTE_BGR, 60, 40);
+        BufferedImage child = parent.getSubimage(7, 5, 31, 17);
+
+        assertSameLuminance(new BufferedImageLuminanceSource(child), RasterLuminanceSource.of(child, null), "subimage");
+
+        BufferedImage grayChild = randomImage(BufferedImage.TYPE_BYTE_GRAY, 60, 40).getSubimage(3, 4, 20, 10);
+        assertSameLuminance(new BufferedImageLuminanceSource(grayChild), RasterLuminanceSource.of(grayChild, null), "gray subimage");
+    }
+
+    @Test
+    void of_shouldWriteIntoTheGivenBufferAndWrapGrayRasters() {
+        BufferedImage rgb = randomImage(BufferedImage.TYPE_INT_RGB, 10, 10);
+        byte[] buffer = new byte[200];
+        assertSame(buffer, RasterLuminanceSource.of(rgb, buffer).getMatrix());
+
+        BufferedImage gray = randomImage(BufferedImage.TYPE_BYTE_GRAY, 10, 10);
+        byte[] raster = ((java.awt.image.DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        assertSame(raster, RasterLuminanceSource.of(gray, buffer).getMatrix());
+    }
+
+    @Test
+    void cropAndRotate_shouldMatchBufferedImageLuminanceSource() {
+        BufferedImage image = randomImage(BufferedImage.TYPE_INT_ARGB, 30, 20);
+        LuminanceSource expected = new BufferedImageLuminanceSource(image);
+        LuminanceSource actual = RasterLuminanceSource.of(image, null);
+
+        assertSameLuminance(expected.crop(4, 3, 12, 9), actual.crop(4, 3, 12, 9), "crop");
+        assertSameLuminance(expected.rotateCounterClockwise(), actual.rotateCounterClockwise(), "rotate");
+        assertSameLuminance(expected.crop(2, 1, 20, 15).rotateCounterClockwise(), actual.crop(2, 1, 20, 15).rotateCounterClockwise(), "crop + rotate");
+    }
+
+    private static BufferedImage randomImage(int type, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = random.nextInt();
+                if (random.nextInt(5) == 0) {
+                    argb &= 0x00FFFFFF; // fully transparent
+                }
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    private static void assertSameLuminance(LuminanceSource expected, LuminanceSource actual, String message) {
+        assertEquals(expected.getWidth(), actual.getWidth(), message);
+        assertEquals(expected.getHeight(), actual.getHeight(), message);
+        for (int y = 0; y < expected.getHeight(); y++) {
+            assertArrayEquals(expected.getRow(y, null), actual.getRow(y, null), message + ", row " + y);
+        }
+        byte[] expectedMatrix = expected.getMatrix();
+        byte[] actualMatrix = actual.getMatrix();
+        for (int i = 0; i < expected.getWidth() * expected.getHeight(); i++) {
+            assertEquals(expectedMatrix[i], actualMatrix[i], message + ", matrix index " + i);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.root14.barcodeservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.root14.barcodeservice.dto.ReadDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadDtoTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void deserialize_imageSpanningSeveralChunks_shouldBeAssembledExactly() throws Exception {
+        // not a multiple of the 64 KiB chunk size, so the last chunk is partly filled
+        byte[] image = new byte[3 * 64 * 1024 + 1234];
+        new Random(42).nextBytes(image);
+
+        ReadDto dto = objectMapper.readValue("{\"data\": \"" + Base64.getEncoder().encodeToString(image) + "\"}", ReadDto.class);
+
+        assertArrayEquals(image, dto.data());
+    }
+
+    @Test
+    void deserialize_emptyString_shouldReturnEmptyImage() throws Exception {
+        ReadDto dto = objectMapper.readValue("{\"data\": \"\"}", ReadDto.class);
+
+        assertEquals(0, dto.data().length);
+    }
+}
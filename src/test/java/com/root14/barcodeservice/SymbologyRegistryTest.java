@@ -0,0 +1,98 @@
+package com.root14.barcodeservice;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.oned.Code93Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.root14.barcodeservice.core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbologyRegistryTest {
+
+    @Test
+    void symbology_shouldResolveBuiltInsCaseInsensitively() {
+        SymbologyRegistry registry = SymbologyRegistry.withBuiltIns();
+
+        assertSame(registry.symbology("qr"), registry.symbology("QR"));
+        assertEquals("dataMatrix", registry.symbology("DATAMATRIX").key());
+        assertEquals(BarcodeType.values().length, registry.symbologies().size());
+    }
+
+    @Test
+    void symbology_code93_shouldUseCode93Writer() {
+        Symbology code93 = SymbologyRegistry.withBuiltIns().symbology("code93");
+
+        assertInstanceOf(Code93Writer.class, code93.writer());
+        assertEquals(BarcodeFormat.CODE_93, code93.format());
+    }
+
+    @Test
+    void lookup_unknownKey_shouldThrow() {
+        SymbologyRegistry registry = SymbologyRegistry.withBuiltIns();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.symbology("maxicode"));
+        assertThrows(IllegalArgumentException.class, () -> registry.renderer("gif"));
+        assertThrows(IllegalArgumentException.class, () -> registry.symbology(null));
+    }
+
+    @Test
+    void register_shouldAddAndReplaceEntries() {
+        SymbologyRegistry registry = SymbologyRegistry.withBuiltIns();
+        Symbology before = registry.symbology("qr");
+        QRCodeWriter customWriter = new QRCodeWriter();
+
+        registry.register(new SymbologyProvider() {
+            @Override
+            public Collection<Symbology> symbologies() {
+                return List.of(new Symbology("QR", BarcodeFormat.QR_CODE, customWriter),
+                        new Symbology("micro", BarcodeFormat.QR_CODE, customWriter));
+            }
+        });
+
+        assertNotSame(before, registry.symbology("qr"));
+        assertSame(customWriter, registry.symbology("qr").writer());
+        assertSame(customWriter, registry.symbology("Micro").writer());
+        assertEquals(BarcodeType.values().length + 1, registry.symbologies().size());
+    }
+
+    @Test
+    void register_shouldNotifyListenersOfReplacedKeysOnly() {
+        SymbologyRegistry registry = SymbologyRegistry.withBuiltIns();
+        List<Set<String>> notified = new ArrayList<>();
+        registry.addReplacementListener((symbologyKeys, formats) -> {
+            notified.add(symbologyKeys);
+            notified.add(formats);
+        });
+
+        registry.register(new SymbologyProvider() {
+            @Override
+            public Collection<Symbology> symbologies() {
+                return List.of(new Symbology("micro", BarcodeFormat.QR_CODE, new QRCodeWriter()));
+            }
+        });
+        assertTrue(notified.isEmpty());
+
+        registry.register(new SymbologyProvider() {
+            @Override
+            public Collection<Symbology> symbologies() {
+                return List.of(new Symbology("QR", BarcodeFormat.QR_CODE, new QRCodeWriter()));
+            }
+        });
+        assertEquals(List.of(Set.of("qr"), Set.of()), notified);
+    }
+
+    @Test
+    void rendererForContentType_shouldFindBuiltInFormats() {
+        SymbologyRegistry registry = SymbologyRegistry.withBuiltIns();
+
+        assertSame(OutputFormat.SVG, registry.rendererForContentType("image/svg+xml").orElseThrow());
+        assertSame(OutputFormat.PNG, registry.renderer("PNG"));
+        assertTrue(registry.rendererForContentType("image/gif").isEmpty());
+    }
+}
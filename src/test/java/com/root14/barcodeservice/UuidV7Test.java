@@ -0,0 +1,85 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.core.RenderSpec;
+import com.root14.barcodeservice.entity.BarcodeEntity;
+import com.root14.barcodeservice.entity.UuidV7;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_shouldSetVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(UuidV7.timestamp(uuid) >= before);
+        assertTrue(UuidV7.timestamp(uuid) <= after + 1); // may run ahead by the counter carry
+    }
+
+    @Test
+    void next_shouldIncreaseStrictlyWithinOneMillisecond() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7.next();
+            // PostgreSQL compares uuid values as unsigned bytes, which the string form preserves
+            assertTrue(next.toString().compareTo(previous.toString()) > 0, previous + " !< " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void next_concurrent_shouldStayUniqueAndOrderedPerThread() throws Exception {
+        Set<UUID> all = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> ordered = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                ordered.add(executor.submit(() -> {
+                    String previous = "";
+                    boolean increasing = true;
+                    for (int i = 0; i < 20_000; i++) {
+                        UUID uuid = UuidV7.next();
+                        all.add(uuid);
+                        increasing &= uuid.toString().compareTo(previous) > 0;
+                        previous = uuid.toString();
+                    }
+                    return increasing;
+                }));
+            }
+            for (Future<Boolean> future : ordered) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(8 * 20_000, all.size());
+    }
+
+    @Test
+    void timestamp_randomUuid_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+
+    @Test
+    void newEntity_shouldHaveTimeOrderedIdAndBeNew() {
+        BarcodeEntity entity = new BarcodeEntity(new RenderSpec("qr", "id", 200, 200, "png"));
+
+        assertEquals(7, entity.getId().version());
+        assertNotNull(entity.getCreatedAt());
+        assertTrue(entity.isNew());
+    }
+}
@@ -0,0 +1,118 @@
+package com.root14.barcodeservice;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.pdf417.PDF417Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.root14.barcodeservice.core.PdfMatrixWriter;
+import com.root14.barcodeservice.core.SvgMatrixWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorMatrixWriterTest {
+
+    private static final Pattern SVG_RUN = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v(\\d+)h-\\d+z");
+    private static final Pattern PDF_RUN = Pattern.compile("(\\d+) (\\d+) (\\d+) (\\d+) re");
+
+    @Test
+    void svg_shouldBeWellFormedAndCoverExactlyTheSetModules() throws Exception {
+        BitMatrix matrix = new QRCodeWriter().encode("vector", BarcodeFormat.QR_CODE, 0, 0);
+
+        String svg = svg(matrix, 400, 400);
+
+        var document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("svg", document.getDocumentElement().getTagName());
+        assertEquals("400", document.getDocumentElement().getAttribute("width"));
+        assertEquals("0 0 " + matrix.getWidth() + " " + matrix.getHeight(), document.getDocumentElement().getAttribute("viewBox"));
+        assertEquals(matrix, rebuild(svg, SVG_RUN, matrix.getWidth(), matrix.getHeight()));
+    }
+
+    @Test
+    void svg_linearBarcode_shouldUseOneRectPerBarAndStretch() throws Exception {
+        BitMatrix matrix = new Code128Writer().encode("12345678", BarcodeFormat.CODE_128, 0, 0);
+
+        String svg = svg(matrix, 300, 100);
+
+        assertEquals(1, matrix.getHeight());
+        assertTrue(svg.contains("preserveAspectRatio=\"none\""));
+        int bars = 0;
+        for (int x = 0; x < matrix.getWidth(); x++) {
+            if (matrix.get(x, 0) && (x == 0 || !matrix.get(x - 1, 0))) {
+                bars++;
+            }
+        }
+        assertEquals(bars, SVG_RUN.matcher(svg).results().count());
+    }
+
+    @Test
+    void svg_pdf417_shouldMergeRepeatedRows() throws Exception {
+        BitMatrix matrix = new PDF417Writer().encode("merge rows", BarcodeFormat.PDF_417, 0, 0);
+
+        String svg = svg(matrix, 600, 200);
+
+        assertEquals(matrix, rebuild(svg, SVG_RUN, matrix.getWidth(), matrix.getHeight()));
+        assertTrue(SVG_RUN.matcher(svg).results().anyMatch(run -> Integer.parseInt(run.group(4)) > 1));
+    }
+
+    @Test
+    void pdf_shouldHaveValidStructureAndCoverExactlyTheSetModules() throws Exception {
+        BitMatrix matrix = new QRCodeWriter().encode("vector", BarcodeFormat.QR_CODE, 0, 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfMatrixWriter.writeToStream(matrix, 200, 200, null, out);
+        byte[] pdf = out.toByteArray();
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+
+        assertTrue(text.startsWith("%PDF-1.4"));
+        assertTrue(text.endsWith("%%EOF\n"));
+        assertTrue(text.contains("/MediaBox [0 0 200 200]"));
+
+        // every cross-reference entry must point at the start of its object
+        int xref = Integer.parseInt(text.substring(text.indexOf("startxref\n") + 10, text.indexOf("\n%%EOF")));
+        assertTrue(text.startsWith("xref", xref));
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n").matcher(text.substring(xref));
+        int object = 1;
+        while (entries.find()) {
+            assertTrue(text.startsWith(object + " 0 obj", Integer.parseInt(entries.group(1))), "object " + object);
+            object++;
+        }
+        assertEquals(5, object);
+
+        int start = text.indexOf("stream\n") + 7;
+        int end = text.indexOf("\nendstream");
+        byte[] compressed = Arrays.copyOfRange(pdf, start, end);
+        String content = new String(new InflaterInputStream(new ByteArrayInputStream(compressed)).readAllBytes(), StandardCharsets.US_ASCII);
+        // module rectangles follow the coordinate transform; the page background precedes it
+        String modules = content.substring(content.indexOf(" cm\n"));
+        assertEquals(matrix, rebuild(modules, PDF_RUN, matrix.getWidth(), matrix.getHeight()));
+    }
+
+    private static String svg(BitMatrix matrix, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SvgMatrixWriter.writeToStream(matrix, width, height, null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static BitMatrix rebuild(String text, Pattern run, int width, int height) {
+        BitMatrix rebuilt = new BitMatrix(width, height);
+        Matcher matcher = run.matcher(text);
+        while (matcher.find()) {
+            rebuilt.setRegion(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)));
+        }
+        return rebuilt;
+    }
+}
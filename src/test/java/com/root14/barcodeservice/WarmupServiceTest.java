@@ -0,0 +1,26 @@
+package com.root14.barcodeservice;
+
+import com.root14.barcodeservice.core.BarcodeReader;
+import com.root14.barcodeservice.core.SymbologyRegistry;
+import com.root14.barcodeservice.service.WarmupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WarmupServiceTest {
+
+    @Test
+    void warmUp_shouldExerciseEveryBarcodeTypeWithoutFailures() {
+        WarmupService warmupService = new WarmupService(SymbologyRegistry.withBuiltIns(), new BarcodeReader(),
+                mock(ApplicationContext.class));
+
+        WarmupService.Report report = warmupService.warmUp(2);
+
+        assertEquals(2, report.iterations());
+        assertEquals(List.of(), report.failures());
+    }
+}